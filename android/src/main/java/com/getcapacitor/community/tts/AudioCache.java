@@ -0,0 +1,229 @@
+package com.getcapacitor.community.tts;
+
+import android.util.Log;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * On-disk LRU cache for synthesized utterances, bounded by a byte budget.
+ * Entries that are currently playing are pinned and never evicted.
+ */
+public class AudioCache {
+
+    private static final String LOG_TAG = "AudioCache";
+    private static final String EXTENSION = ".wav";
+
+    public static final long DEFAULT_MAX_BYTES = 20L * 1024 * 1024;
+
+    private final File directory;
+    // accessOrder = true：迭代顺序即最近最少使用顺序
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Integer> pinned = new HashMap<>();
+    private boolean enabled = false;
+    private long maxBytes = DEFAULT_MAX_BYTES;
+    private long totalBytes = 0;
+    private long hits = 0;
+    private long misses = 0;
+    private boolean loaded = false;
+
+    public AudioCache(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * @param voiceURI Name of the selected voice, or {@code null} for the default voice. Voice indexes are not stable
+     *                 across engine updates, so they must not be part of the key.
+     * @return Cache key for the given synthesis parameters.
+     */
+    public static String key(String text, String lang, String voiceURI, float rate, float pitch) {
+        String source = text + '\u0000' + lang + '\u0000' + voiceURI + '\u0000' + rate + '\u0000' + pitch;
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(source.getBytes(StandardCharsets.UTF_8));
+            StringBuilder builder = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                builder.append(String.format(Locale.ROOT, "%02x", b));
+            }
+            return builder.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public synchronized void configure(boolean enabled, long maxBytes) {
+        this.enabled = enabled;
+        this.maxBytes = Math.max(0, maxBytes);
+        if (enabled) {
+            load();
+            trim();
+        }
+    }
+
+    /**
+     * Reads the index of the entries on disk, so the first lookup does not list the directory.
+     * Blocks on disk I/O; call it on a background thread.
+     */
+    public synchronized void loadIndex() {
+        load();
+    }
+
+    public synchronized boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Looks up an entry and pins it on a hit. Every successful lookup must be balanced with {@link #unpin(String)}.
+     *
+     * @return The cached file, or {@code null} on a miss.
+     */
+    public synchronized File acquire(String key) {
+        if (!enabled) {
+            return null;
+        }
+        load();
+        if (entries.get(key) == null) {
+            misses++;
+            return null;
+        }
+        File file = fileFor(key);
+        if (!file.exists()) {
+            remove(key);
+            misses++;
+            return null;
+        }
+        hits++;
+        pin(key);
+        // 记录访问时间，进程重启后仍能恢复 LRU 顺序
+        file.setLastModified(System.currentTimeMillis());
+        return file;
+    }
+
+    /**
+     * Moves a freshly synthesized file into the cache and pins it.
+     *
+     * @return The cached file, or the source file if it could not be cached.
+     */
+    public synchronized File store(String key, File source) {
+        if (!enabled || !source.exists()) {
+            return source;
+        }
+        load();
+        File target = fileFor(key);
+        if (entries.containsKey(key) && target.exists()) {
+            // 同一内容被并发合成了两次，保留已有条目（它可能正在播放）
+            source.delete();
+            entries.get(key);
+            pin(key);
+            return target;
+        }
+        if (!directory.exists() && !directory.mkdirs()) {
+            return source;
+        }
+        if (!source.renameTo(target)) {
+            Log.e(LOG_TAG, "Failed to move " + source.getPath() + " into the cache");
+            return source;
+        }
+        long size = target.length();
+        entries.put(key, size);
+        totalBytes += size;
+        pin(key);
+        trim();
+        return target;
+    }
+
+    public synchronized void unpin(String key) {
+        Integer count = pinned.get(key);
+        if (count == null) {
+            return;
+        }
+        if (count <= 1) {
+            pinned.remove(key);
+        } else {
+            pinned.put(key, count - 1);
+        }
+        trim();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public synchronized long getMaxBytes() {
+        return maxBytes;
+    }
+
+    private void pin(String key) {
+        Integer count = pinned.get(key);
+        pinned.put(key, count == null ? 1 : count + 1);
+    }
+
+    private void remove(String key) {
+        Long size = entries.remove(key);
+        if (size != null) {
+            totalBytes -= size;
+        }
+        fileFor(key).delete();
+    }
+
+    /**
+     * Evicts least recently used entries until the budget is met, skipping pinned ones.
+     */
+    private void trim() {
+        if (totalBytes <= maxBytes) {
+            return;
+        }
+        Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, Long> entry = iterator.next();
+            if (pinned.containsKey(entry.getKey())) {
+                continue;
+            }
+            fileFor(entry.getKey()).delete();
+            totalBytes -= entry.getValue();
+            iterator.remove();
+        }
+    }
+
+    private void load() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(EXTENSION));
+        if (files == null) {
+            return;
+        }
+        Arrays.sort(files, (f1, f2) -> Long.compare(f1.lastModified(), f2.lastModified()));
+        for (File file : files) {
+            String name = file.getName();
+            String key = name.substring(0, name.length() - EXTENSION.length());
+            long size = file.length();
+            entries.put(key, size);
+            totalBytes += size;
+        }
+    }
+
+    private File fileFor(String key) {
+        return new File(directory, key + EXTENSION);
+    }
+}
@@ -0,0 +1,230 @@
+package com.getcapacitor.community.tts;
+
+import android.bluetooth.BluetoothAdapter;
+import android.bluetooth.BluetoothDevice;
+import android.media.AudioDeviceCallback;
+import android.media.AudioDeviceInfo;
+import android.media.AudioManager;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import com.getcapacitor.JSArray;
+import com.getcapacitor.JSObject;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The connected Bluetooth audio outputs. The table is maintained from {@link AudioDeviceCallback} events,
+ * so a query returns a prebuilt snapshot and never touches the Bluetooth stack.
+ */
+class AudioDeviceTable {
+
+    interface Listener {
+        /**
+         * Called on the main thread whenever a device has been connected or disconnected.
+         */
+        void onDevicesChanged(JSArray devices);
+    }
+
+    private static final String LOG_TAG = "AudioDeviceTable";
+
+    /**
+     * A Bluetooth device, which shows up once per profile (e.g. A2DP and SCO) it is connected with.
+     */
+    private static class Device {
+
+        final String name;
+        int profiles = 0;
+
+        Device(String name) {
+            this.name = name;
+        }
+    }
+
+    private final AudioManager audioManager;
+    private final Listener listener;
+    // 以下两个表只在主线程中访问
+    private final Map<String, Device> devices = new LinkedHashMap<>();
+    private final Map<Integer, String> uidsById = new HashMap<>();
+    // 每次变化后重新构建，查询时直接返回，调用方不得修改
+    private volatile JSArray snapshot = new JSArray();
+
+    private final AudioDeviceCallback callback = new AudioDeviceCallback() {
+        @Override
+        public void onAudioDevicesAdded(AudioDeviceInfo[] addedDevices) {
+            boolean changed = false;
+            for (AudioDeviceInfo info : addedDevices) {
+                changed |= add(info);
+            }
+            if (changed) {
+                publish();
+            }
+        }
+
+        @Override
+        public void onAudioDevicesRemoved(AudioDeviceInfo[] removedDevices) {
+            boolean changed = false;
+            for (AudioDeviceInfo info : removedDevices) {
+                changed |= remove(info);
+            }
+            if (changed) {
+                publish();
+            }
+        }
+    };
+
+    AudioDeviceTable(AudioManager audioManager, Listener listener) {
+        this.audioManager = audioManager;
+        this.listener = listener;
+        // 注册后会先收到一次当前已连接设备的 onAudioDevicesAdded
+        audioManager.registerAudioDeviceCallback(callback, new Handler(Looper.getMainLooper()));
+    }
+
+    /**
+     * @return The connected devices as {@code { name, uid }} objects. The array is shared and must not be modified.
+     */
+    JSArray getDevices() {
+        return snapshot;
+    }
+
+    void release() {
+        audioManager.unregisterAudioDeviceCallback(callback);
+    }
+
+    private boolean add(AudioDeviceInfo info) {
+        if (!isBluetoothOutput(info) || uidsById.containsKey(info.getId())) {
+            return false;
+        }
+        String uid = getUid(info);
+        uidsById.put(info.getId(), uid);
+        Device device = devices.get(uid);
+        if (device != null) {
+            // 同一设备的另一个配置文件
+            device.profiles++;
+            return false;
+        }
+        device = new Device(getName(info, uid));
+        device.profiles = 1;
+        devices.put(uid, device);
+        return true;
+    }
+
+    private boolean remove(AudioDeviceInfo info) {
+        String uid = uidsById.remove(info.getId());
+        if (uid == null) {
+            return false;
+        }
+        Device device = devices.get(uid);
+        if (device == null || --device.profiles > 0) {
+            return false;
+        }
+        devices.remove(uid);
+        return true;
+    }
+
+    private void publish() {
+        JSArray result = new JSArray();
+        for (Map.Entry<String, Device> entry : devices.entrySet()) {
+            JSObject obj = new JSObject();
+            obj.put("name", entry.getValue().name);
+            obj.put("uid", entry.getKey());
+            result.put(obj);
+        }
+        snapshot = result;
+        listener.onDevicesChanged(result);
+    }
+
+    private static boolean isBluetoothOutput(AudioDeviceInfo info) {
+        if (!info.isSink()) {
+            return false;
+        }
+        int type = info.getType();
+        if (type == AudioDeviceInfo.TYPE_BLUETOOTH_A2DP || type == AudioDeviceInfo.TYPE_BLUETOOTH_SCO) {
+            return true;
+        }
+        return (
+            Build.VERSION.SDK_INT >= Build.VERSION_CODES.S &&
+            (type == AudioDeviceInfo.TYPE_BLE_HEADSET || type == AudioDeviceInfo.TYPE_BLE_SPEAKER)
+        );
+    }
+
+    /**
+     * @return The MAC address of the device, like the uid reported by earlier versions of the plugin. Falls back to
+     *         the id of the {@link AudioDeviceInfo} if the address cannot be determined.
+     */
+    private static String getUid(AudioDeviceInfo info) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P) {
+            if (!info.getAddress().isEmpty()) {
+                return info.getAddress();
+            }
+        } else {
+            String address = findBondedAddress(info.getProductName());
+            if (address != null) {
+                return address;
+            }
+        }
+        return String.valueOf(info.getId());
+    }
+
+    /**
+     * Looks up the address by name among the paired devices, since {@link AudioDeviceInfo#getAddress()} requires
+     * API 28. Only called when a device is connected.
+     *
+     * @return The address of the only paired device with this name, or {@code null}.
+     */
+    private static String findBondedAddress(CharSequence productName) {
+        if (productName == null || productName.length() == 0) {
+            return null;
+        }
+        BluetoothAdapter adapter = BluetoothAdapter.getDefaultAdapter();
+        if (adapter == null) {
+            return null;
+        }
+        try {
+            Set<BluetoothDevice> bondedDevices = adapter.getBondedDevices();
+            if (bondedDevices == null) {
+                // 蓝牙已关闭
+                return null;
+            }
+            String address = null;
+            for (BluetoothDevice device : bondedDevices) {
+                if (productName.toString().equals(device.getName())) {
+                    if (address != null) {
+                        // 同名设备无法区分
+                        return null;
+                    }
+                    address = device.getAddress();
+                }
+            }
+            return address;
+        } catch (SecurityException e) {
+            Log.d(LOG_TAG, "Cannot read paired devices: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * @return The alias the user gave the device, falling back to its product name.
+     */
+    private static String getName(AudioDeviceInfo info, String uid) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.R) {
+            try {
+                BluetoothAdapter adapter = BluetoothAdapter.getDefaultAdapter();
+                if (adapter != null && BluetoothAdapter.checkBluetoothAddress(uid)) {
+                    String alias = adapter.getRemoteDevice(uid).getAlias();
+                    if (alias != null && !alias.isEmpty()) {
+                        return alias;
+                    }
+                }
+            } catch (SecurityException e) {
+                // Android 12+ 未授予 BLUETOOTH_CONNECT 时只能使用产品名
+                Log.d(LOG_TAG, "Cannot read device alias: " + e.getMessage());
+            }
+        }
+        CharSequence productName = info.getProductName();
+        return productName != null && productName.length() > 0 ? productName.toString() : "Unknown Device";
+    }
+}
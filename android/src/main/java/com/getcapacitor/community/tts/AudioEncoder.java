@@ -0,0 +1,198 @@
+package com.getcapacitor.community.tts;
+
+import android.media.MediaCodec;
+import android.media.MediaCodecInfo;
+import android.media.MediaFormat;
+import android.media.MediaMuxer;
+import android.os.Build;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+import android.util.Log;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Converts the WAV files written by the engine into the output format of a render call: the WAV file itself,
+ * its raw PCM data, AAC in an MP4 container or Opus in an Ogg container. Files are converted one at a time on a
+ * background thread into a temporary file that is renamed once complete, so a half-written file is never returned.
+ */
+class AudioEncoder {
+
+    static final String FORMAT_WAV = "wav";
+    static final String FORMAT_PCM = "pcm";
+    static final String FORMAT_AAC = "aac";
+    static final String FORMAT_OPUS = "opus";
+
+    static final int DEFAULT_BIT_RATE = 64000;
+
+    private static final String LOG_TAG = "AudioEncoder";
+    private static final long TIMEOUT_US = 10000;
+
+    private final HandlerThread thread;
+    private final Handler handler;
+
+    AudioEncoder() {
+        this.thread = new HandlerThread(LOG_TAG, Process.THREAD_PRIORITY_BACKGROUND);
+        this.thread.start();
+        this.handler = new Handler(thread.getLooper());
+    }
+
+    /**
+     * @return Whether the given format can be produced on this device. Opus requires Android 10.
+     */
+    static boolean isSupported(String format) {
+        if (FORMAT_OPUS.equals(format)) {
+            return Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q;
+        }
+        return FORMAT_WAV.equals(format) || FORMAT_PCM.equals(format) || FORMAT_AAC.equals(format);
+    }
+
+    static String getExtension(String format) {
+        switch (format) {
+            case FORMAT_AAC:
+                return "m4a";
+            case FORMAT_OPUS:
+                return "ogg";
+            default:
+                return format;
+        }
+    }
+
+    /**
+     * Converts {@code source} into {@code target}. The source file is left in place unless the format is WAV,
+     * in which case it is renamed.
+     *
+     * @param bitRate Target bit rate of the compressed formats in bits per second.
+     */
+    void encode(File source, File target, String format, int bitRate, RenderResultCallback callback) {
+        handler.post(() -> {
+            File partFile = new File(target.getPath() + ".part");
+            try {
+                WavHeader header = WavHeader.read(source);
+                if (FORMAT_WAV.equals(format)) {
+                    partFile = source;
+                } else if (FORMAT_PCM.equals(format)) {
+                    copyData(source, header, partFile);
+                } else {
+                    encodeCompressed(source, header, partFile, format, bitRate);
+                }
+                if (!partFile.renameTo(target)) {
+                    throw new IOException("Cannot rename " + partFile);
+                }
+                callback.onDone(target, header.sampleRate, header.channelCount, header.getDurationMs());
+            } catch (Exception ex) {
+                Log.e(LOG_TAG, "Failed to encode " + source + ": " + ex.getMessage());
+                if (partFile != source) {
+                    partFile.delete();
+                }
+                callback.onError();
+            }
+        });
+    }
+
+    void release() {
+        thread.quitSafely();
+    }
+
+    private static void copyData(File source, WavHeader header, File output) throws IOException {
+        try (
+            FileChannel input = new FileInputStream(source).getChannel();
+            FileChannel channel = new FileOutputStream(output).getChannel()
+        ) {
+            long position = header.dataOffset;
+            long end = header.dataOffset + header.dataLength;
+            while (position < end) {
+                long transferred = input.transferTo(position, end - position, channel);
+                if (transferred <= 0) {
+                    throw new IOException("Unexpected end of " + source);
+                }
+                position += transferred;
+            }
+        }
+    }
+
+    private static void encodeCompressed(File source, WavHeader header, File output, String format, int bitRate)
+        throws IOException {
+        if (header.bitsPerSample != 16) {
+            throw new IOException("Unsupported sample size: " + header.bitsPerSample);
+        }
+        boolean opus = FORMAT_OPUS.equals(format);
+        String mimeType = opus ? MediaFormat.MIMETYPE_AUDIO_OPUS : MediaFormat.MIMETYPE_AUDIO_AAC;
+        MediaFormat mediaFormat = MediaFormat.createAudioFormat(mimeType, header.sampleRate, header.channelCount);
+        mediaFormat.setInteger(MediaFormat.KEY_BIT_RATE, bitRate);
+        if (!opus) {
+            mediaFormat.setInteger(MediaFormat.KEY_AAC_PROFILE, MediaCodecInfo.CodecProfileLevel.AACObjectLC);
+        }
+
+        MediaCodec codec = MediaCodec.createEncoderByType(mimeType);
+        MediaMuxer muxer = null;
+        try (FileChannel input = new FileInputStream(source).getChannel()) {
+            // Opus 编码器只接受 8/12/16/24/48 kHz，其它采样率在此处失败
+            codec.configure(mediaFormat, null, null, MediaCodec.CONFIGURE_FLAG_ENCODE);
+            codec.start();
+            muxer = new MediaMuxer(
+                output.getPath(),
+                opus ? MediaMuxer.OutputFormat.MUXER_OUTPUT_OGG : MediaMuxer.OutputFormat.MUXER_OUTPUT_MPEG_4
+            );
+            input.position(header.dataOffset);
+            int frameSize = header.getFrameSize();
+            long remaining = header.dataLength;
+            long framesQueued = 0;
+            int track = -1;
+            boolean inputDone = false;
+            MediaCodec.BufferInfo info = new MediaCodec.BufferInfo();
+            while (true) {
+                if (!inputDone) {
+                    int inputIndex = codec.dequeueInputBuffer(TIMEOUT_US);
+                    if (inputIndex >= 0) {
+                        // 直接读入编码器的输入缓冲区，只送入整帧
+                        ByteBuffer buffer = codec.getInputBuffer(inputIndex);
+                        buffer.clear();
+                        buffer.limit((int) Math.min(remaining, buffer.capacity() / frameSize * frameSize));
+                        while (buffer.hasRemaining() && input.read(buffer) > 0) {}
+                        int length = buffer.position();
+                        remaining -= length;
+                        inputDone = length == 0 || remaining == 0;
+                        long presentationTimeUs = framesQueued * 1000000L / header.sampleRate;
+                        framesQueued += length / frameSize;
+                        codec.queueInputBuffer(
+                            inputIndex,
+                            0,
+                            length,
+                            presentationTimeUs,
+                            inputDone ? MediaCodec.BUFFER_FLAG_END_OF_STREAM : 0
+                        );
+                    }
+                }
+
+                int outputIndex = codec.dequeueOutputBuffer(info, TIMEOUT_US);
+                if (outputIndex == MediaCodec.INFO_OUTPUT_FORMAT_CHANGED) {
+                    track = muxer.addTrack(codec.getOutputFormat());
+                    muxer.start();
+                } else if (outputIndex >= 0) {
+                    ByteBuffer buffer = codec.getOutputBuffer(outputIndex);
+                    // 编码器配置数据已包含在输出格式中，不作为样本写入
+                    boolean config = (info.flags & MediaCodec.BUFFER_FLAG_CODEC_CONFIG) != 0;
+                    if (!config && info.size > 0 && track >= 0) {
+                        muxer.writeSampleData(track, buffer, info);
+                    }
+                    codec.releaseOutputBuffer(outputIndex, false);
+                    if ((info.flags & MediaCodec.BUFFER_FLAG_END_OF_STREAM) != 0) {
+                        break;
+                    }
+                }
+            }
+            muxer.stop();
+        } finally {
+            codec.release();
+            if (muxer != null) {
+                muxer.release();
+            }
+        }
+    }
+}
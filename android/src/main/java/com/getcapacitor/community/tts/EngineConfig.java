@@ -0,0 +1,64 @@
+package com.getcapacitor.community.tts;
+
+/**
+ * Remembers the parameters last applied to the engine so that only changed values are sent over binder.
+ * Not thread-safe; callers hold the engine lock.
+ */
+class EngineConfig {
+
+    /**
+     * The engine calls that reconfigure synthesis. Return values follow {@code android.speech.tts.TextToSpeech}:
+     * negative values mean the parameter was not applied.
+     */
+    interface Target {
+        int setLanguage(String lang);
+
+        int setVoice(String voiceURI);
+
+        int setSpeechRate(float rate);
+
+        int setPitch(float pitch);
+    }
+
+    private final Target target;
+    private String lang;
+    private String voiceURI;
+    private float rate = Float.NaN;
+    private float pitch = Float.NaN;
+
+    EngineConfig(Target target) {
+        this.target = target;
+    }
+
+    /**
+     * @param voiceURI The voice to use, or {@code null} for the default voice of {@code lang}.
+     */
+    void apply(String lang, String voiceURI, float rate, float pitch) {
+        if (voiceURI != null) {
+            if (!voiceURI.equals(this.voiceURI)) {
+                // 语音会同时改变引擎的语言
+                this.lang = null;
+                this.voiceURI = target.setVoice(voiceURI) >= 0 ? voiceURI : null;
+            }
+        } else if (this.voiceURI != null || !lang.equals(this.lang)) {
+            this.voiceURI = null;
+            this.lang = target.setLanguage(lang) >= 0 ? lang : null;
+        }
+        if (rate != this.rate) {
+            this.rate = target.setSpeechRate(rate) >= 0 ? rate : Float.NaN;
+        }
+        if (pitch != this.pitch) {
+            this.pitch = target.setPitch(pitch) >= 0 ? pitch : Float.NaN;
+        }
+    }
+
+    /**
+     * Forgets the applied values, e.g. after the engine was (re)initialized.
+     */
+    void invalidate() {
+        lang = null;
+        voiceURI = null;
+        rate = Float.NaN;
+        pitch = Float.NaN;
+    }
+}
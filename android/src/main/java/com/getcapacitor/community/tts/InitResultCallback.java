@@ -0,0 +1,6 @@
+package com.getcapacitor.community.tts;
+
+public interface InitResultCallback {
+    void onDone(long initMs);
+    void onError();
+}
@@ -0,0 +1,283 @@
+package com.getcapacitor.community.tts;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * A queue split into priority lanes. Higher lanes are served first and every lane is FIFO.
+ * A lane can be bounded, in which case its oldest item is dropped to make room, and items can expire.
+ * The whole queue can be bounded by item count and by the total weight of its items, e.g. their size in bytes;
+ * the overload policy decides which item gives way. Not thread-safe.
+ */
+class LaneQueue<T> {
+
+    static final int LANES = 3;
+
+    // 队列已满时丢弃最早入队的项
+    static final int POLICY_DROP_OLDEST = 0;
+    // 队列已满时拒绝新项，已入队的项不受影响
+    static final int POLICY_REJECT_NEW = 1;
+    // 队列已满时丢弃最低优先级通道中最早入队的项
+    static final int POLICY_DROP_LOWEST_PRIORITY = 2;
+
+    private static class Entry<T> {
+
+        final T item;
+        // 0 表示不过期
+        final long expiresAt;
+        final long weight;
+        // 入队顺序，用于跨通道找出最早的项
+        final long sequence;
+
+        Entry(T item, long expiresAt, long weight, long sequence) {
+            this.item = item;
+            this.expiresAt = expiresAt;
+            this.weight = weight;
+            this.sequence = sequence;
+        }
+    }
+
+    private final List<ArrayDeque<Entry<T>>> lanes = new ArrayList<>(LANES);
+    // 0 表示不限制
+    private final int[] maxDepth = new int[LANES];
+    // 整个队列的上限，0 表示不限制
+    private int maxSize = 0;
+    private long maxWeight = 0;
+    private int policy = POLICY_DROP_OLDEST;
+    private int size = 0;
+    private long weight = 0;
+    private long nextSequence = 0;
+
+    LaneQueue() {
+        for (int i = 0; i < LANES; i++) {
+            lanes.add(new ArrayDeque<>());
+        }
+    }
+
+    /**
+     * @param lane Clamped to the available lanes.
+     * @param expiresAt Time after which the item is dropped by {@link #expire}, or {@code 0} to keep it.
+     * @return The items dropped because the lane was full, oldest first.
+     */
+    List<T> add(T item, int lane, long expiresAt) {
+        return add(item, lane, expiresAt, 0);
+    }
+
+    /**
+     * @param weight Counted against the weight limit of {@link #setLimits}.
+     * @return The items dropped because the lane or the queue was full. With {@link #POLICY_REJECT_NEW}, or if the
+     *         item is the one that has to give way, this is the item itself.
+     */
+    List<T> add(T item, int lane, long expiresAt, long weight) {
+        int index = clamp(lane);
+        if (policy == POLICY_REJECT_NEW && !accepts(index, 1, weight)) {
+            List<T> rejected = new ArrayList<>(1);
+            rejected.add(item);
+            return rejected;
+        }
+        lanes.get(index).add(new Entry<>(item, expiresAt, weight, nextSequence++));
+        size++;
+        this.weight += weight;
+        List<T> dropped = trim(index);
+        dropped.addAll(trimTotal());
+        return dropped;
+    }
+
+    /**
+     * @return Whether {@code count} items of the given total weight can be added to the lane without exceeding any limit.
+     *         With {@link #POLICY_REJECT_NEW} they have to fit next to the queued items, otherwise queued items make
+     *         room and they only have to fit on their own.
+     */
+    boolean accepts(int lane, int count, long weight) {
+        boolean keepQueued = policy == POLICY_REJECT_NEW;
+        int depth = maxDepth[clamp(lane)];
+        int laneSize = keepQueued ? lanes.get(clamp(lane)).size() : 0;
+        int queuedSize = keepQueued ? size : 0;
+        long queuedWeight = keepQueued ? this.weight : 0;
+        return (
+            (depth == 0 || laneSize + count <= depth) &&
+            (maxSize == 0 || queuedSize + count <= maxSize) &&
+            (maxWeight == 0 || queuedWeight + weight <= maxWeight)
+        );
+    }
+
+    T peek() {
+        for (int i = LANES - 1; i >= 0; i--) {
+            Entry<T> entry = lanes.get(i).peek();
+            if (entry != null) {
+                return entry.item;
+            }
+        }
+        return null;
+    }
+
+    T poll() {
+        for (int i = LANES - 1; i >= 0; i--) {
+            Entry<T> entry = lanes.get(i).poll();
+            if (entry != null) {
+                size--;
+                weight -= entry.weight;
+                return entry.item;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Removes the items that expired before {@code now}.
+     */
+    List<T> expire(long now) {
+        List<T> expired = new ArrayList<>();
+        for (ArrayDeque<Entry<T>> queue : lanes) {
+            Iterator<Entry<T>> iterator = queue.iterator();
+            while (iterator.hasNext()) {
+                Entry<T> entry = iterator.next();
+                if (entry.expiresAt != 0 && entry.expiresAt < now) {
+                    iterator.remove();
+                    size--;
+                    weight -= entry.weight;
+                    expired.add(entry.item);
+                }
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * Removes the items matching the filter, highest lane first.
+     */
+    List<T> removeIf(Predicate<? super T> filter) {
+        List<T> removed = new ArrayList<>();
+        for (int i = LANES - 1; i >= 0; i--) {
+            Iterator<Entry<T>> iterator = lanes.get(i).iterator();
+            while (iterator.hasNext()) {
+                Entry<T> entry = iterator.next();
+                if (filter.test(entry.item)) {
+                    iterator.remove();
+                    size--;
+                    weight -= entry.weight;
+                    removed.add(entry.item);
+                }
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * @param depth Maximum number of items in the lane, or {@code 0} for no limit.
+     * @return The items dropped to satisfy the new limit, oldest first.
+     */
+    List<T> setMaxDepth(int lane, int depth) {
+        maxDepth[clamp(lane)] = Math.max(0, depth);
+        return trim(clamp(lane));
+    }
+
+    int getMaxDepth(int lane) {
+        return maxDepth[clamp(lane)];
+    }
+
+    /**
+     * Bounds the whole queue. Lowering a limit drops queued items according to the policy.
+     *
+     * @param maxSize Maximum number of items, or {@code 0} for no limit.
+     * @param maxWeight Maximum total weight of the items, or {@code 0} for no limit.
+     * @param policy One of the {@code POLICY_} constants; also applies to full lanes.
+     * @return The items dropped to satisfy the new limits.
+     */
+    List<T> setLimits(int maxSize, long maxWeight, int policy) {
+        this.maxSize = Math.max(0, maxSize);
+        this.maxWeight = Math.max(0, maxWeight);
+        this.policy = policy;
+        return trimTotal();
+    }
+
+    int getPolicy() {
+        return policy;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long weight() {
+        return weight;
+    }
+
+    int size(int lane) {
+        return lanes.get(clamp(lane)).size();
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return All queued items, highest lane first.
+     */
+    List<T> clear() {
+        List<T> cleared = new ArrayList<>(size);
+        for (int i = LANES - 1; i >= 0; i--) {
+            for (Entry<T> entry : lanes.get(i)) {
+                cleared.add(entry.item);
+            }
+            lanes.get(i).clear();
+        }
+        size = 0;
+        weight = 0;
+        return cleared;
+    }
+
+    private List<T> trim(int lane) {
+        List<T> dropped = new ArrayList<>();
+        ArrayDeque<Entry<T>> queue = lanes.get(lane);
+        while (maxDepth[lane] > 0 && queue.size() > maxDepth[lane]) {
+            Entry<T> entry = queue.poll();
+            size--;
+            weight -= entry.weight;
+            dropped.add(entry.item);
+        }
+        return dropped;
+    }
+
+    private List<T> trimTotal() {
+        List<T> dropped = new ArrayList<>();
+        while ((maxSize > 0 && size > maxSize) || (maxWeight > 0 && weight > maxWeight)) {
+            int lane = policy == POLICY_DROP_LOWEST_PRIORITY ? lowestLane() : oldestLane();
+            Entry<T> entry = lanes.get(lane).poll();
+            size--;
+            weight -= entry.weight;
+            dropped.add(entry.item);
+        }
+        return dropped;
+    }
+
+    /**
+     * @return The lane whose first item was queued first. Only called while the queue is not empty.
+     */
+    private int oldestLane() {
+        int oldest = -1;
+        for (int i = 0; i < LANES; i++) {
+            Entry<T> entry = lanes.get(i).peek();
+            if (entry != null && (oldest < 0 || entry.sequence < lanes.get(oldest).peek().sequence)) {
+                oldest = i;
+            }
+        }
+        return oldest;
+    }
+
+    private int lowestLane() {
+        for (int i = 0; i < LANES; i++) {
+            if (!lanes.get(i).isEmpty()) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    static int clamp(int lane) {
+        return Math.max(0, Math.min(LANES - 1, lane));
+    }
+}
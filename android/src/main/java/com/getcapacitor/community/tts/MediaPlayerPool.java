@@ -0,0 +1,50 @@
+package com.getcapacitor.community.tts;
+
+import android.media.MediaPlayer;
+import android.util.Log;
+import java.util.ArrayDeque;
+
+/**
+ * Keeps a few reset {@link MediaPlayer} instances around so that consecutive utterances do not pay for
+ * allocating and tearing down native player resources. Not thread-safe; used from the playback thread only.
+ */
+class MediaPlayerPool {
+
+    private static final String LOG_TAG = "MediaPlayerPool";
+
+    private final int maxIdle;
+    private final ArrayDeque<MediaPlayer> idle = new ArrayDeque<>();
+
+    MediaPlayerPool(int maxIdle) {
+        this.maxIdle = maxIdle;
+    }
+
+    MediaPlayer acquire() {
+        MediaPlayer player = idle.poll();
+        return player != null ? player : new MediaPlayer();
+    }
+
+    /**
+     * Resets a player and keeps it for reuse, or releases it if the pool is full or the reset fails.
+     */
+    void recycle(MediaPlayer player) {
+        try {
+            player.reset();
+        } catch (IllegalStateException e) {
+            Log.e(LOG_TAG, "Failed to reset media player: " + e.getMessage());
+            player.release();
+            return;
+        }
+        if (idle.size() < maxIdle) {
+            idle.add(player);
+        } else {
+            player.release();
+        }
+    }
+
+    void releaseAll() {
+        while (!idle.isEmpty()) {
+            idle.poll().release();
+        }
+    }
+}
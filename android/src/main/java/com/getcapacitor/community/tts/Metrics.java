@@ -0,0 +1,88 @@
+package com.getcapacitor.community.tts;
+
+import com.getcapacitor.JSObject;
+
+/**
+ * Latency distributions of the synthesis and playback pipeline. Durations are passed in as
+ * {@link System#nanoTime()} differences and kept in microseconds.
+ */
+class Metrics {
+
+    // speak() 调用到开始出声，每次 speak() 记录一次
+    private final LatencyHistogram timeToFirstAudio = new LatencyHistogram();
+    // 提交给引擎到合成完成，每个分段记录一次
+    private final LatencyHistogram synthesis = new LatencyHistogram();
+    // MediaPlayer.prepareAsync() 到 onPrepared
+    private final LatencyHistogram prepare = new LatencyHistogram();
+    private final LatencyHistogram gap = new LatencyHistogram();
+    // speak() 时等待合成和播放的分段数
+    private final LatencyHistogram queueDepth = new LatencyHistogram();
+    // reset() 时缓存计数器的值，命中率只统计之后的查询
+    private long cacheHitsAtReset = 0;
+    private long cacheMissesAtReset = 0;
+
+    void recordQueueDepth(int depth) {
+        queueDepth.record(depth);
+    }
+
+    void recordSynthesis(TTSRequest request) {
+        if (request.submittedAt != 0) {
+            synthesis.record(toMicros(System.nanoTime() - request.submittedAt));
+        }
+    }
+
+    void recordPrepare(long nanos) {
+        prepare.record(toMicros(nanos));
+    }
+
+    void recordGap(long nanos) {
+        gap.record(toMicros(nanos));
+    }
+
+    /**
+     * Called when the audio of a segment starts playing. Only the first segment of an utterance counts.
+     */
+    void onPlaybackStarted(TTSRequest request) {
+        if (request.utterance != null && request.utterance.markStarted()) {
+            timeToFirstAudio.record(toMicros(System.nanoTime() - request.utterance.requestedAt));
+        }
+    }
+
+    synchronized void reset(long cacheHits, long cacheMisses) {
+        timeToFirstAudio.reset();
+        synthesis.reset();
+        prepare.reset();
+        gap.reset();
+        queueDepth.reset();
+        cacheHitsAtReset = cacheHits;
+        cacheMissesAtReset = cacheMisses;
+    }
+
+    synchronized JSObject toJSObject(long cacheHits, long cacheMisses) {
+        long hits = cacheHits - cacheHitsAtReset;
+        long lookups = hits + cacheMisses - cacheMissesAtReset;
+        JSObject metrics = new JSObject();
+        metrics.put("timeToFirstAudioMs", summarize(timeToFirstAudio, 1000.0));
+        metrics.put("synthesisMs", summarize(synthesis, 1000.0));
+        metrics.put("prepareMs", summarize(prepare, 1000.0));
+        metrics.put("gapMs", summarize(gap, 1000.0));
+        metrics.put("queueDepth", summarize(queueDepth, 1.0));
+        metrics.put("cacheHitRate", lookups == 0 ? 0.0 : (double) hits / lookups);
+        return metrics;
+    }
+
+    private static JSObject summarize(LatencyHistogram histogram, double divisor) {
+        JSObject summary = new JSObject();
+        summary.put("count", histogram.getCount());
+        summary.put("mean", histogram.getMean() / divisor);
+        summary.put("p50", histogram.getPercentile(50) / divisor);
+        summary.put("p95", histogram.getPercentile(95) / divisor);
+        summary.put("p99", histogram.getPercentile(99) / divisor);
+        summary.put("max", histogram.getMax() / divisor);
+        return summary;
+    }
+
+    private static long toMicros(long nanos) {
+        return nanos / 1000;
+    }
+}
@@ -0,0 +1,109 @@
+package com.getcapacitor.community.tts;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The synthesized PCM of one utterance, held in chunks borrowed from a {@link PcmBufferPool}.
+ * Written from the engine's callback thread, then handed to playback once synthesis is done.
+ * A buffer can also wrap audio that is already in memory, e.g. a slice of a {@link PromptPack}.
+ */
+class PcmBuffer {
+
+    private final PcmBufferPool pool;
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+    private boolean overflowed = false;
+
+    int sampleRate;
+    int encoding;
+    int channelCount;
+
+    PcmBuffer(PcmBufferPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Wraps existing audio without copying it. The audio is split into views of {@link PcmBufferPool#CHUNK_BYTES},
+     * so playback processes it in the same steps as synthesized audio.
+     */
+    static PcmBuffer wrap(ByteBuffer audio, int sampleRate, int encoding, int channelCount) {
+        PcmBuffer pcm = new PcmBuffer(null);
+        pcm.setFormat(sampleRate, encoding, channelCount);
+        for (int start = audio.position(); start < audio.limit(); start += PcmBufferPool.CHUNK_BYTES) {
+            ByteBuffer view = audio.duplicate();
+            view.limit(Math.min(audio.limit(), start + PcmBufferPool.CHUNK_BYTES));
+            view.position(start);
+            ByteBuffer chunk = view.slice();
+            // 与写入完成的块一致：position 位于数据末尾
+            chunk.position(chunk.limit());
+            pcm.chunks.add(chunk);
+        }
+        return pcm;
+    }
+
+    void setFormat(int sampleRate, int encoding, int channelCount) {
+        this.sampleRate = sampleRate;
+        this.encoding = encoding;
+        this.channelCount = channelCount;
+    }
+
+    /**
+     * Copies a chunk delivered by {@code onAudioAvailable}. Once the pool's budget is exhausted the buffer is
+     * marked as overflowed and further audio is dropped.
+     */
+    void append(byte[] audio) {
+        int offset = 0;
+        while (offset < audio.length && !overflowed) {
+            ByteBuffer chunk = chunks.isEmpty() ? null : chunks.get(chunks.size() - 1);
+            if (chunk == null || !chunk.hasRemaining()) {
+                chunk = pool.acquire();
+                if (chunk == null) {
+                    overflowed = true;
+                    return;
+                }
+                chunks.add(chunk);
+            }
+            int length = Math.min(chunk.remaining(), audio.length - offset);
+            chunk.put(audio, offset, length);
+            offset += length;
+        }
+    }
+
+    boolean isOverflowed() {
+        return overflowed;
+    }
+
+    /**
+     * @return Read-only views of the written audio, in order. The views stay valid until {@link #release()}.
+     */
+    List<ByteBuffer> getChunks() {
+        List<ByteBuffer> views = new ArrayList<>(chunks.size());
+        for (ByteBuffer chunk : chunks) {
+            ByteBuffer view = chunk.asReadOnlyBuffer();
+            view.flip();
+            views.add(view);
+        }
+        return views;
+    }
+
+    /**
+     * @return Number of bytes written so far.
+     */
+    long getByteCount() {
+        long count = 0;
+        for (ByteBuffer chunk : chunks) {
+            count += chunk.position();
+        }
+        return count;
+    }
+
+    void release() {
+        if (pool != null) {
+            for (ByteBuffer chunk : chunks) {
+                pool.release(chunk);
+            }
+        }
+        chunks.clear();
+    }
+}
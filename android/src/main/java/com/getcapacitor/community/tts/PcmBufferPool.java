@@ -0,0 +1,51 @@
+package com.getcapacitor.community.tts;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+/**
+ * Fixed-size direct buffers for in-memory PCM, reused across utterances and bounded by a byte budget.
+ * Buffers are never freed, so steady-state playback allocates nothing.
+ */
+class PcmBufferPool {
+
+    static final int CHUNK_BYTES = 16 * 1024;
+    // 约 90 秒 22.05kHz 16 位单声道音频
+    static final long DEFAULT_MAX_BYTES = 4L * 1024 * 1024;
+
+    private final long maxBytes;
+    private final ArrayDeque<ByteBuffer> free = new ArrayDeque<>();
+    private long allocatedBytes = 0;
+
+    PcmBufferPool(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * @return An empty buffer, or {@code null} if the budget is exhausted.
+     */
+    synchronized ByteBuffer acquire() {
+        ByteBuffer buffer = free.poll();
+        if (buffer != null) {
+            buffer.clear();
+            return buffer;
+        }
+        if (allocatedBytes + CHUNK_BYTES > maxBytes) {
+            return null;
+        }
+        allocatedBytes += CHUNK_BYTES;
+        return ByteBuffer.allocateDirect(CHUNK_BYTES);
+    }
+
+    synchronized void release(ByteBuffer buffer) {
+        free.add(buffer);
+    }
+
+    synchronized long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    synchronized long getFreeBytes() {
+        return (long) free.size() * CHUNK_BYTES;
+    }
+}
@@ -0,0 +1,291 @@
+package com.getcapacitor.community.tts;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Post-processing for 16-bit PCM on the streaming path: silence trimming, channel routing with per-channel gain,
+ * mono downmix, fade-in/out against clicks and loudness normalization. Output is always interleaved stereo.
+ * The processing loops work on primitive arrays that are reused across chunks, so steady-state processing
+ * does not allocate. Not thread-safe; used from the writer thread only.
+ */
+class PcmProcessor {
+
+    static final int OUTPUT_CHANNELS = 2;
+
+    // 归一化增益的上下限，避免把静音或极短的语句放大成噪声
+    private static final float MIN_NORMALIZATION_GAIN = 0.25f;
+    private static final float MAX_NORMALIZATION_GAIN = 4.0f;
+    // 结尾静音最多保留这么久等待确认；更长的停顿会原样输出
+    static final int MAX_HELD_SILENCE_MS = 1000;
+
+    private int inputChannels = 1;
+    private float leftGain = 1.0f;
+    private float rightGain = 1.0f;
+    // 只输出到一侧时先混成单声道，避免丢掉另一侧的内容
+    private boolean downmix = false;
+    private int fadeInFrames = 0;
+    private int fadeInPosition = 0;
+
+    // 淡出需要知道结尾，因此最后 fadeOutFrames 帧延迟输出
+    private short[] tail = new short[0];
+    private int tailFrames = 0;
+    private int tailStart = 0;
+    private int fadeOutFrames = 0;
+
+    // 静音裁剪：开头的静音直接丢弃，中间的静音先暂存，后面还有声音时再输出
+    private boolean trimSilence = false;
+    private int silenceThreshold = 0;
+    private boolean leading = true;
+    private short[] held = new short[0];
+    private int heldFrames = 0;
+    private int heldStart = 0;
+    private int heldCapacity = 0;
+
+    private short[] output = new short[0];
+    private double sumOfSquares = 0;
+    private long frameCount = 0;
+
+    /**
+     * Starts a new utterance.
+     *
+     * @param audioChannel 0 for both channels, 1 for left only, 2 for right only.
+     * @param gain Linear gain, i.e. the utterance volume multiplied by the normalization gain.
+     */
+    void begin(int sampleRate, int inputChannels, int audioChannel, float gain, int fadeMs) {
+        begin(sampleRate, inputChannels, audioChannel, gain, fadeMs, false, 0);
+    }
+
+    /**
+     * Starts a new utterance with silence trimming.
+     *
+     * @param trimSilence Drop leading and trailing frames below {@code silenceThresholdDb}.
+     * @param silenceThresholdDb Peak level in dBFS below which a frame counts as silent.
+     */
+    void begin(
+        int sampleRate,
+        int inputChannels,
+        int audioChannel,
+        float gain,
+        int fadeMs,
+        boolean trimSilence,
+        float silenceThresholdDb
+    ) {
+        this.inputChannels = Math.max(1, inputChannels);
+        this.leftGain = audioChannel == 2 ? 0.0f : gain;
+        this.rightGain = audioChannel == 1 ? 0.0f : gain;
+        this.downmix = audioChannel != 0;
+        this.fadeInFrames = sampleRate * fadeMs / 1000;
+        this.fadeInPosition = 0;
+        this.fadeOutFrames = fadeInFrames;
+        if (tail.length < fadeOutFrames * OUTPUT_CHANNELS) {
+            tail = new short[fadeOutFrames * OUTPUT_CHANNELS];
+        }
+        this.tailFrames = 0;
+        this.tailStart = 0;
+        this.sumOfSquares = 0;
+        this.frameCount = 0;
+        this.trimSilence = trimSilence;
+        this.silenceThreshold = (int) (32768 * Math.pow(10, silenceThresholdDb / 20.0));
+        this.leading = true;
+        this.heldCapacity = trimSilence ? sampleRate * MAX_HELD_SILENCE_MS / 1000 : 0;
+        if (held.length < heldCapacity * OUTPUT_CHANNELS) {
+            held = new short[heldCapacity * OUTPUT_CHANNELS];
+        }
+        this.heldFrames = 0;
+        this.heldStart = 0;
+    }
+
+    /**
+     * Processes little-endian 16-bit samples.
+     *
+     * @return Number of samples available in {@link #getOutput()}.
+     */
+    int process(byte[] input, int offset, int length) {
+        int frames = length / (2 * inputChannels);
+        ensureOutput(frames);
+        int written = 0;
+        int index = offset;
+        for (int frame = 0; frame < frames; frame++) {
+            int left = (short) ((input[index] & 0xff) | (input[index + 1] << 8));
+            index += 2;
+            int right = left;
+            if (inputChannels > 1) {
+                right = (short) ((input[index] & 0xff) | (input[index + 1] << 8));
+                index += 2 * (inputChannels - 1);
+            }
+            written = processFrame(left, right, written);
+        }
+        return written;
+    }
+
+    /**
+     * Processes little-endian 16-bit samples between the buffer's position and limit, without changing them.
+     *
+     * @return Number of samples available in {@link #getOutput()}.
+     */
+    int process(ByteBuffer input) {
+        int frames = input.remaining() / (2 * inputChannels);
+        ensureOutput(frames);
+        int written = 0;
+        int index = input.position();
+        for (int frame = 0; frame < frames; frame++) {
+            int left = (short) ((input.get(index) & 0xff) | (input.get(index + 1) << 8));
+            index += 2;
+            int right = left;
+            if (inputChannels > 1) {
+                right = (short) ((input.get(index) & 0xff) | (input.get(index + 1) << 8));
+                index += 2 * (inputChannels - 1);
+            }
+            written = processFrame(left, right, written);
+        }
+        return written;
+    }
+
+    /**
+     * Ends the utterance and releases the frames held back for the fade-out.
+     *
+     * @return Number of samples available in {@link #getOutput()}.
+     */
+    int end() {
+        ensureOutput(0);
+        // 暂存的结尾静音直接丢弃
+        heldFrames = 0;
+        heldStart = 0;
+        int written = 0;
+        for (int i = 0; i < tailFrames; i++) {
+            int slot = ((tailStart + i) % fadeOutFrames) * OUTPUT_CHANNELS;
+            float fade = (float) (tailFrames - i) / (tailFrames + 1);
+            output[written++] = (short) (tail[slot] * fade);
+            output[written++] = (short) (tail[slot + 1] * fade);
+        }
+        tailFrames = 0;
+        tailStart = 0;
+        return written;
+    }
+
+    short[] getOutput() {
+        return output;
+    }
+
+    /**
+     * @return Mean square of the input processed since {@link #begin}, normalized to [0, 1], for loudness tracking.
+     */
+    double getMeanSquare() {
+        return frameCount == 0 ? 0 : sumOfSquares / frameCount;
+    }
+
+    long getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * @return The gain that brings a signal with the given mean square to the target RMS level, within safe bounds.
+     */
+    static float normalizationGain(double meanSquare, float targetLevelDb) {
+        if (meanSquare <= 0) {
+            return 1.0f;
+        }
+        double target = Math.pow(10, targetLevelDb / 20.0);
+        float gain = (float) (target / Math.sqrt(meanSquare));
+        return Math.max(MIN_NORMALIZATION_GAIN, Math.min(MAX_NORMALIZATION_GAIN, gain));
+    }
+
+    private int processFrame(int left, int right, int written) {
+        if (downmix) {
+            left = (left + right) >> 1;
+            right = left;
+        }
+        boolean silent = false;
+        if (trimSilence) {
+            silent = Math.abs(left) <= silenceThreshold && Math.abs(right) <= silenceThreshold;
+            if (silent && leading) {
+                return written;
+            }
+            leading = false;
+        }
+        double level = (left + right) * (0.5 / 32768.0);
+        sumOfSquares += level * level;
+        frameCount++;
+
+        float fade = 1.0f;
+        if (fadeInPosition < fadeInFrames) {
+            fade = (float) fadeInPosition / fadeInFrames;
+            fadeInPosition++;
+        }
+        short outLeft = clip(left * leftGain * fade);
+        short outRight = clip(right * rightGain * fade);
+
+        if (trimSilence) {
+            if (silent) {
+                return hold(outLeft, outRight, written);
+            }
+            // 后面还有声音，暂存的静音是句中停顿，按原样输出
+            for (int i = 0; i < heldFrames; i++) {
+                int slot = ((heldStart + i) % heldCapacity) * OUTPUT_CHANNELS;
+                written = emit(held[slot], held[slot + 1], written);
+            }
+            heldFrames = 0;
+            heldStart = 0;
+        }
+        return emit(outLeft, outRight, written);
+    }
+
+    private int hold(short left, short right, int written) {
+        int slot;
+        if (heldFrames == heldCapacity) {
+            // 停顿超过上限时按原样输出最早的一帧，只裁掉结尾最后一段静音
+            slot = heldStart * OUTPUT_CHANNELS;
+            written = emit(held[slot], held[slot + 1], written);
+            heldStart = (heldStart + 1) % heldCapacity;
+        } else {
+            slot = ((heldStart + heldFrames) % heldCapacity) * OUTPUT_CHANNELS;
+            heldFrames++;
+        }
+        held[slot] = left;
+        held[slot + 1] = right;
+        return written;
+    }
+
+    /**
+     * Passes a frame through the fade-out delay line.
+     */
+    private int emit(short outLeft, short outRight, int written) {
+        if (fadeOutFrames == 0) {
+            output[written++] = outLeft;
+            output[written++] = outRight;
+            return written;
+        }
+        // 环形缓冲区满时先输出最早的一帧
+        int slot;
+        if (tailFrames == fadeOutFrames) {
+            slot = tailStart * OUTPUT_CHANNELS;
+            output[written++] = tail[slot];
+            output[written++] = tail[slot + 1];
+            tailStart = (tailStart + 1) % fadeOutFrames;
+        } else {
+            slot = ((tailStart + tailFrames) % fadeOutFrames) * OUTPUT_CHANNELS;
+            tailFrames++;
+        }
+        tail[slot] = outLeft;
+        tail[slot + 1] = outRight;
+        return written;
+    }
+
+    private void ensureOutput(int frames) {
+        // 一次处理最多额外输出全部暂存的静音
+        int required = (Math.max(frames, fadeOutFrames) + heldCapacity) * OUTPUT_CHANNELS;
+        if (output.length < required) {
+            output = new short[required];
+        }
+    }
+
+    private static short clip(float sample) {
+        if (sample > Short.MAX_VALUE) {
+            return Short.MAX_VALUE;
+        }
+        if (sample < Short.MIN_VALUE) {
+            return Short.MIN_VALUE;
+        }
+        return (short) sample;
+    }
+}
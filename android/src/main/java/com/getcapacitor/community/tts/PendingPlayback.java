@@ -0,0 +1,132 @@
+package com.getcapacitor.community.tts;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Segments taken off the synthesis backlog, in playback order. A segment is handed over once it is ready and every
+ * segment before it has been handed over. File and in-memory segments go to the {@link PlaybackScheduler}, which
+ * plays them back to back. Streamed segments bypass the scheduler, so a stream only starts once everything before
+ * it has finished playing, and the segments after it wait until it has ended. The audio of ready segments is
+ * counted until it has been played, so synthesis can be paused while too much audio is waiting. Not thread-safe.
+ */
+class PendingPlayback {
+
+    private final LinkedList<TTSRequest> queue = new LinkedList<>();
+    // 已交给播放调度器、尚未播放完毕的分段
+    private final Set<TTSRequest> playing = new HashSet<>();
+    // 正在合成并推流的分段
+    private TTSRequest stream;
+    // 已合成、尚未播放完毕的音频字节数
+    private long queuedBytes = 0;
+
+    /**
+     * Reserves the place of a segment that has been taken off the backlog.
+     */
+    void add(TTSRequest request) {
+        TTSRequest.insertByPriority(queue, request, false);
+    }
+
+    boolean contains(TTSRequest request) {
+        return queue.contains(request);
+    }
+
+    int size() {
+        return queue.size();
+    }
+
+    /**
+     * Marks a segment as ready and counts its audio until {@link #release} is called. Segments that were
+     * discarded by {@link #clear} are not counted, since they are not released again.
+     */
+    void markReady(TTSRequest request, long bytes) {
+        request.ready = true;
+        if (queue.contains(request)) {
+            request.queuedBytes = bytes;
+            queuedBytes += bytes;
+        }
+    }
+
+    /**
+     * Stops counting the audio of a segment that has been played or discarded.
+     */
+    void release(TTSRequest request) {
+        queuedBytes -= request.queuedBytes;
+        request.queuedBytes = 0;
+    }
+
+    long getQueuedBytes() {
+        return queuedBytes;
+    }
+
+    /**
+     * @param segmentsInFlight Segments being synthesized or waiting for playback.
+     * @param maxQueued Maximum number of such segments, 0 for no limit.
+     * @param maxQueuedBytes Maximum size of the audio waiting for playback, 0 for no limit.
+     * @return Whether another segment may be submitted. With nothing in flight a segment is always admitted,
+     *         so the queue keeps moving.
+     */
+    boolean admits(int segmentsInFlight, int maxQueued, long maxQueuedBytes) {
+        boolean full = (maxQueued > 0 && segmentsInFlight >= maxQueued) || (maxQueuedBytes > 0 && queuedBytes >= maxQueuedBytes);
+        return segmentsInFlight == 0 || !full;
+    }
+
+    /**
+     * Takes the segments whose turn has come. Failed segments are returned so they can be reported.
+     * A streamed segment is always the last one returned and must then be synthesized; it blocks the segments
+     * after it until {@link #onStreamFinished} is called.
+     */
+    List<TTSRequest> pollReleasable() {
+        List<TTSRequest> released = new ArrayList<>();
+        while (stream == null && !queue.isEmpty() && queue.peek().ready) {
+            TTSRequest request = queue.peek();
+            if (request.streaming && !request.failed) {
+                if (!playing.isEmpty()) {
+                    // 等待之前的分段播放完毕，避免与其重叠
+                    break;
+                }
+                stream = queue.poll();
+                released.add(request);
+                break;
+            }
+            queue.poll();
+            if (!request.failed) {
+                playing.add(request);
+            }
+            released.add(request);
+        }
+        return released;
+    }
+
+    /**
+     * Called when the scheduler has finished or discarded a segment.
+     */
+    void onPlaybackFinished(TTSRequest request) {
+        playing.remove(request);
+    }
+
+    /**
+     * Called when a streamed segment has been played out or has failed.
+     */
+    void onStreamFinished(TTSRequest request) {
+        if (stream == request) {
+            stream = null;
+        }
+    }
+
+    /**
+     * Forgets everything, e.g. on stop().
+     *
+     * @return The segments that were waiting to be handed over.
+     */
+    List<TTSRequest> clear() {
+        List<TTSRequest> discarded = new ArrayList<>(queue);
+        queue.clear();
+        playing.clear();
+        stream = null;
+        return discarded;
+    }
+}
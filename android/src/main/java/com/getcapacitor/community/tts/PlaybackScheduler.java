@@ -0,0 +1,645 @@
+package com.getcapacitor.community.tts;
+
+import android.media.AudioAttributes;
+import android.media.AudioFocusRequest;
+import android.media.AudioManager;
+import android.media.MediaPlayer;
+import android.os.Build;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+import java.util.LinkedList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Plays synthesized utterances one after another on a dedicated thread, higher priorities first.
+ * The queue, the player and the audio focus are only touched on that thread, so callers from binder threads,
+ * player callbacks and the bridge never race with each other.
+ */
+class PlaybackScheduler {
+
+    interface Listener {
+        /**
+         * Called on the playback thread once a request has been played, or could not be played.
+         */
+        void onPlaybackFinished(TTSRequest request, boolean success);
+
+        /**
+         * Called on the playback thread for requests that were dropped by {@link #stop()}.
+         */
+        void onPlaybackDiscarded(TTSRequest request);
+
+        void onAudioFocusLost();
+    }
+
+    private static final String LOG_TAG = "PlaybackScheduler";
+
+    private static final int STATE_IDLE = 0;
+    private static final int STATE_PREPARING = 1;
+    private static final int STATE_PLAYING = 2;
+
+    public static final long DEFAULT_FOCUS_LINGER_MS = 500;
+
+    // 当前播放器加预备播放器，再多留一个备用
+    private static final int MAX_IDLE_PLAYERS = 1;
+
+    /**
+     * A request together with the pooled player that plays it. In-memory requests have no player;
+     * they are written to the streaming player instead.
+     */
+    private static class Slot {
+
+        final TTSRequest request;
+        final MediaPlayer player;
+        final boolean memory;
+        boolean prepared = false;
+        // 已接在当前请求之后（setNextMediaPlayer 或已写入流式播放器）
+        boolean chained = false;
+        // 内存音频已交给流式播放器
+        boolean fed = false;
+        StreamingAudioPlayer.Playback playback;
+        // System.nanoTime()，开始 prepareAsync 的时间
+        long prepareStartedAt;
+
+        Slot(TTSRequest request, MediaPlayer player) {
+            this.request = request;
+            this.player = player;
+            this.memory = player == null;
+        }
+    }
+
+    /**
+     * Gaps between the end of one utterance and the start of the next one that was already waiting.
+     */
+    static class GapStats {
+
+        private long count = 0;
+        private double totalMs = 0;
+        private double maxMs = 0;
+        private double lastMs = 0;
+
+        synchronized void record(long gapNanos) {
+            double gapMs = Math.max(0, gapNanos) / 1_000_000.0;
+            count++;
+            totalMs += gapMs;
+            maxMs = Math.max(maxMs, gapMs);
+            lastMs = gapMs;
+        }
+
+        synchronized long getCount() {
+            return count;
+        }
+
+        synchronized double getAverageMs() {
+            return count == 0 ? 0 : totalMs / count;
+        }
+
+        synchronized double getMaxMs() {
+            return maxMs;
+        }
+
+        synchronized double getLastMs() {
+            return lastMs;
+        }
+    }
+
+    private final AudioManager audioManager;
+    private final StreamingAudioPlayer streamingPlayer;
+    private final Metrics metrics;
+    private final Listener listener;
+    private final HandlerThread thread;
+    private final Handler handler;
+    // stop() 时递增，早于 stop() 提交但尚未执行的 enqueue 会被丢弃
+    private final AtomicInteger generation = new AtomicInteger();
+    private final GapStats gapStats = new GapStats();
+
+    // 以下字段只在播放线程中访问
+    // 按优先级排序，同一优先级内先进先出
+    private final LinkedList<TTSRequest> queue = new LinkedList<>();
+    private final MediaPlayerPool playerPool = new MediaPlayerPool(MAX_IDLE_PLAYERS);
+    private int state = STATE_IDLE;
+    private Slot current;
+    private Slot next;
+    private AudioFocusRequest currentFocusRequest;
+    private boolean streamActive = false;
+    // 音频会话：队列非空期间一直持有焦点和路由，空闲后再保留 focusLingerMs
+    private boolean sessionActive = false;
+    private boolean sessionForceSpeaker;
+    private long focusLingerMs = DEFAULT_FOCUS_LINGER_MS;
+    private final Runnable endSession = this::endAudioSession;
+    // 上一条结束的时间，以及无缝衔接时下一条先于完成回调开始的时间
+    private long finishedAtNanos = 0;
+    private long startedAsNextAtNanos = 0;
+
+    PlaybackScheduler(AudioManager audioManager, StreamingAudioPlayer streamingPlayer, Metrics metrics, Listener listener) {
+        this.audioManager = audioManager;
+        this.streamingPlayer = streamingPlayer;
+        this.metrics = metrics;
+        this.listener = listener;
+        this.thread = new HandlerThread(LOG_TAG, Process.THREAD_PRIORITY_AUDIO);
+        this.thread.start();
+        this.handler = new Handler(thread.getLooper());
+    }
+
+    public void enqueue(TTSRequest request) {
+        int requestGeneration = generation.get();
+        handler.post(() -> {
+            if (requestGeneration != generation.get()) {
+                listener.onPlaybackDiscarded(request);
+                return;
+            }
+            TTSRequest.insertByPriority(queue, request, false);
+            if (request.preempt && current != null && current.request.priority < request.priority) {
+                preemptCurrent();
+            } else if (state == STATE_IDLE) {
+                playNext();
+            } else if (state == STATE_PLAYING) {
+                prepareNext();
+            }
+        });
+    }
+
+    /**
+     * Stops the current utterance and drops everything that is queued.
+     */
+    public void stop() {
+        generation.incrementAndGet();
+        handler.postAtFrontOfQueue(this::stopPlayback);
+    }
+
+    /**
+     * Interrupts the current utterance for a request of a higher priority. The interrupted utterance is played again
+     * from the start after it if it is resumable or had not started yet, and fails otherwise.
+     */
+    private void preemptCurrent() {
+        Slot interrupted = current;
+        boolean started = state == STATE_PLAYING;
+        current = null;
+        if (next != null) {
+            // 尚未开始的下一条放回队列，之后重新准备
+            cancelPlayer(next);
+            TTSRequest.insertByPriority(queue, next.request, true);
+            next = null;
+        }
+        // 只取消被打断的语句，流式播放器中其他请求的音频和回调不受影响
+        cancelPlayer(interrupted);
+        if (!started || interrupted.request.resumable) {
+            TTSRequest.insertByPriority(queue, interrupted.request, true);
+        } else {
+            listener.onPlaybackFinished(interrupted.request, false);
+        }
+        state = STATE_IDLE;
+        finishedAtNanos = 0;
+        startedAsNextAtNanos = 0;
+        playNext();
+    }
+
+    /**
+     * Lets the streaming player share the audio focus owned by this scheduler.
+     */
+    public void onStreamStart(boolean forceSpeaker, AudioAttributes audioAttributes) {
+        handler.post(() -> {
+            streamActive = true;
+            setupAudioSession(forceSpeaker, audioAttributes);
+        });
+    }
+
+    public void onStreamIdle() {
+        handler.post(() -> {
+            streamActive = false;
+            if (state == STATE_IDLE) {
+                scheduleSessionEnd();
+            }
+        });
+    }
+
+    /**
+     * @param lingerMs How long the audio focus and routing are kept after the queue runs empty,
+     *                 so that an utterance queued shortly afterwards does not duck other apps again.
+     */
+    public void setFocusLinger(long lingerMs) {
+        handler.post(() -> focusLingerMs = Math.max(0, lingerMs));
+    }
+
+    public GapStats getGapStats() {
+        return gapStats;
+    }
+
+    public void release() {
+        stop();
+        handler.post(() -> {
+            endAudioSession();
+            playerPool.releaseAll();
+        });
+        thread.quitSafely();
+    }
+
+    /**
+     * Makes the prepared next slot current, or starts preparing the next playable request.
+     */
+    private void playNext() {
+        if (next != null) {
+            current = next;
+            next = null;
+            if (current.prepared) {
+                startCurrent();
+            } else {
+                // 仍在 prepareAsync，onPrepared 时再开始
+                state = STATE_PREPARING;
+            }
+            return;
+        }
+        current = pollPlayable();
+        if (current == null) {
+            state = STATE_IDLE;
+            finishedAtNanos = 0;
+            if (!streamActive) {
+                scheduleSessionEnd();
+            }
+            return;
+        }
+        state = STATE_PREPARING;
+    }
+
+    /**
+     * Prepares the request after the current one while it plays, so it can start without a gap.
+     */
+    private void prepareNext() {
+        if (next == null && state == STATE_PLAYING) {
+            next = pollPlayable();
+        }
+    }
+
+    /**
+     * Takes the next playable request off the queue and starts preparing it asynchronously.
+     * Requests that cannot be played are failed in a loop rather than recursively.
+     */
+    private Slot pollPlayable() {
+        while (true) {
+            TTSRequest request = queue.poll();
+            if (request == null) {
+                return null;
+            }
+            if (request.utterance.isFailed()) {
+                // 同一次 speak() 的其他分段已失败，跳过剩余分段
+                listener.onPlaybackFinished(request, false);
+                continue;
+            }
+            if (request.isExpired(SystemClock.elapsedRealtime())) {
+                // 等待时间超过 TTL，内容已过时
+                listener.onPlaybackFinished(request, false);
+                continue;
+            }
+            if (request.pcm != null) {
+                // 内存中的音频无需准备
+                Slot slot = new Slot(request, null);
+                slot.prepared = true;
+                return slot;
+            }
+            if (!request.audioFile.exists()) {
+                Log.e(LOG_TAG, "Audio file not found: " + request.audioFile.getPath());
+                listener.onPlaybackFinished(request, false);
+                continue;
+            }
+            Slot slot = new Slot(request, playerPool.acquire());
+            try {
+                preparePlayer(slot);
+                return slot;
+            } catch (Exception e) {
+                Log.e(LOG_TAG, "Error playing audio: " + e.getMessage());
+                playerPool.recycle(slot.player);
+                listener.onPlaybackFinished(request, false);
+            }
+        }
+    }
+
+    private void preparePlayer(Slot slot) throws Exception {
+        TTSRequest request = slot.request;
+        MediaPlayer player = slot.player;
+        player.setDataSource(request.audioFile.getPath());
+
+        // 设置音频属性
+        player.setAudioAttributes(StreamingAudioPlayer.buildAudioAttributes(request.forceSpeaker));
+
+        // 设置音量和左右声道
+        float leftVolume = request.volume;
+        float rightVolume = request.volume;
+        switch (request.audioChannel) {
+            case 1: // 左声道
+                rightVolume = 0.0f;
+                break;
+            case 2: // 右声道
+                leftVolume = 0.0f;
+                break;
+            default: // 双声道
+                // 保持左右声道为 request.volume
+                break;
+        }
+        player.setVolume(leftVolume, rightVolume);
+
+        // 播放器的回调都投递到本线程
+        player.setOnPreparedListener(mp -> onPlayerPrepared(slot));
+        player.setOnCompletionListener(mp -> onPlayerFinished(slot, true));
+        player.setOnErrorListener(
+            (mp, what, extra) -> {
+                Log.e(LOG_TAG, "MediaPlayer error: " + what + ", " + extra);
+                onPlayerFinished(slot, false);
+                return true;
+            }
+        );
+        player.setOnInfoListener(
+            (mp, what, extra) -> {
+                if (what == MediaPlayer.MEDIA_INFO_STARTED_AS_NEXT) {
+                    onStartedAsNext(slot);
+                }
+                return false;
+            }
+        );
+        slot.prepareStartedAt = System.nanoTime();
+        player.prepareAsync();
+    }
+
+    private void onPlayerPrepared(Slot slot) {
+        slot.prepared = true;
+        metrics.recordPrepare(System.nanoTime() - slot.prepareStartedAt);
+        if (slot == current && state == STATE_PREPARING) {
+            startCurrent();
+        } else if (slot == next && state == STATE_PLAYING) {
+            chainNext();
+        }
+        // 其余情况是已被 stop() 丢弃的播放器的迟到回调
+    }
+
+    private void startCurrent() {
+        TTSRequest request = current.request;
+        setupAudioSession(request.forceSpeaker, StreamingAudioPlayer.buildAudioAttributes(request.forceSpeaker));
+        if (current.memory) {
+            if (!current.fed) {
+                feed(current);
+            }
+        } else {
+            try {
+                current.player.start();
+            } catch (IllegalStateException e) {
+                Log.e(LOG_TAG, "Error playing audio: " + e.getMessage());
+                onPlayerFinished(current, false);
+                return;
+            }
+        }
+        state = STATE_PLAYING;
+        metrics.onPlaybackStarted(request);
+        if (finishedAtNanos != 0) {
+            recordGap(System.nanoTime() - finishedAtNanos);
+            finishedAtNanos = 0;
+        }
+        prepareNext();
+        if (next != null && next.prepared) {
+            chainNext();
+        }
+    }
+
+    /**
+     * Lets the next request start the moment the current one completes: the framework switches media players,
+     * and in-memory audio is written right behind the current utterance.
+     */
+    private void chainNext() {
+        if (next.chained || next.request.forceSpeaker != current.request.forceSpeaker) {
+            // 路由不同的请求需要先切换音频会话，不能直接衔接
+            return;
+        }
+        if (next.memory != current.memory) {
+            // 文件与内存音频由不同的播放器播放，只能依次启动
+            return;
+        }
+        if (next.memory) {
+            feed(next);
+            next.chained = true;
+            return;
+        }
+        try {
+            current.player.setNextMediaPlayer(next.player);
+            next.chained = true;
+        } catch (IllegalStateException | IllegalArgumentException e) {
+            Log.e(LOG_TAG, "Failed to chain next media player: " + e.getMessage());
+        }
+    }
+
+    private void feed(Slot slot) {
+        slot.fed = true;
+        TTSRequest request = slot.request;
+        slot.playback = streamingPlayer.play(
+            request.utteranceId,
+            request.pcm,
+            request.audioChannel,
+            request.forceSpeaker,
+            request.volume,
+            request.voiceKey(),
+            new SpeakResultCallback() {
+                @Override
+                public void onDone() {
+                    handler.post(() -> onPlayerFinished(slot, true));
+                }
+
+                @Override
+                public void onError() {
+                    handler.post(() -> onPlayerFinished(slot, false));
+                }
+
+                @Override
+                public void onRangeStart(int start, int end) {}
+            }
+        );
+    }
+
+    private void onStartedAsNext(Slot slot) {
+        long now = System.nanoTime();
+        if (slot == current && finishedAtNanos != 0) {
+            recordGap(now - finishedAtNanos);
+            finishedAtNanos = 0;
+        } else if (slot == next) {
+            // 下一条已经开始，完成回调稍后到达
+            startedAsNextAtNanos = now;
+        }
+    }
+
+    private void onPlayerFinished(Slot slot, boolean success) {
+        if (slot == next) {
+            // 预备中的下一条出错，跳过它并准备再下一条
+            next = null;
+            recycle(slot);
+            listener.onPlaybackFinished(slot.request, false);
+            prepareNext();
+            return;
+        }
+        if (slot != current || state == STATE_IDLE) {
+            // 已被 stop() 丢弃的播放器的迟到回调
+            return;
+        }
+        long now = System.nanoTime();
+        current = null;
+        recycle(slot);
+        listener.onPlaybackFinished(slot.request, success);
+
+        if (success && next != null && next.chained) {
+            // 下一条已由框架无缝启动
+            current = next;
+            next = null;
+            state = STATE_PLAYING;
+            metrics.onPlaybackStarted(current.request);
+            if (current.memory) {
+                // 内存音频连续写入同一个 AudioTrack，中间没有间隙
+                recordGap(0);
+            } else if (startedAsNextAtNanos != 0) {
+                recordGap(now - startedAsNextAtNanos);
+                startedAsNextAtNanos = 0;
+            } else {
+                finishedAtNanos = now;
+            }
+            prepareNext();
+            return;
+        }
+        if (next != null && next.chained) {
+            // 当前播放器出错时不会自动衔接，改为手动启动
+            next.chained = false;
+        }
+        startedAsNextAtNanos = 0;
+        finishedAtNanos = next != null || !queue.isEmpty() ? now : 0;
+        playNext();
+    }
+
+    private void recordGap(long gapNanos) {
+        gapStats.record(gapNanos);
+        metrics.recordGap(gapNanos);
+    }
+
+    private void stopPlayback() {
+        if (current != null) {
+            stopPlayer(current);
+            listener.onPlaybackDiscarded(current.request);
+            current = null;
+        }
+        if (next != null) {
+            stopPlayer(next);
+            listener.onPlaybackDiscarded(next.request);
+            next = null;
+        }
+        while (!queue.isEmpty()) {
+            listener.onPlaybackDiscarded(queue.poll());
+        }
+        state = STATE_IDLE;
+        streamActive = false;
+        finishedAtNanos = 0;
+        startedAsNextAtNanos = 0;
+
+        // 被打断后通常紧接着有新的请求，焦点同样保留一段时间
+        scheduleSessionEnd();
+    }
+
+    /**
+     * Stops a single slot. Unlike {@link #stopPlayer}, in-memory audio that was already written to the streaming
+     * player is cancelled too.
+     */
+    private void cancelPlayer(Slot slot) {
+        if (slot.memory) {
+            if (slot.playback != null) {
+                streamingPlayer.cancel(slot.playback);
+            }
+            return;
+        }
+        stopPlayer(slot);
+    }
+
+    private void stopPlayer(Slot slot) {
+        if (slot.memory) {
+            // 内存音频由 TextToSpeech.stop() 停止流式播放器
+            return;
+        }
+        try {
+            slot.player.stop();
+        } catch (IllegalStateException e) {
+            // 尚未准备好的播放器不能 stop()，reset() 即可
+        }
+        playerPool.recycle(slot.player);
+    }
+
+    private void recycle(Slot slot) {
+        if (slot.player != null) {
+            playerPool.recycle(slot.player);
+        }
+    }
+
+    /**
+     * Starts the audio session, or keeps the running one. Routing and focus are only reapplied when
+     * {@code forceSpeaker} differs from the running session.
+     */
+    private void setupAudioSession(boolean forceSpeaker, AudioAttributes audioAttributes) {
+        handler.removeCallbacks(endSession);
+        if (sessionActive && sessionForceSpeaker == forceSpeaker) {
+            return;
+        }
+
+        if (forceSpeaker) {
+            audioManager.setMode(AudioManager.MODE_IN_COMMUNICATION);
+            audioManager.setSpeakerphoneOn(true);
+        } else {
+            audioManager.setMode(AudioManager.MODE_NORMAL);
+            audioManager.setSpeakerphoneOn(false);
+        }
+
+        // 请求音频焦点
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            // 如果存在之前的请求（路由变化时），先放弃它
+            if (currentFocusRequest != null) {
+                audioManager.abandonAudioFocusRequest(currentFocusRequest);
+            }
+
+            currentFocusRequest =
+                new AudioFocusRequest.Builder(AudioManager.AUDIOFOCUS_GAIN_TRANSIENT_MAY_DUCK)
+                    .setAudioAttributes(audioAttributes)
+                    .setOnAudioFocusChangeListener(
+                        focusChange -> {
+                            if (focusChange == AudioManager.AUDIOFOCUS_LOSS) {
+                                endAudioSession();
+                                listener.onAudioFocusLost();
+                            }
+                        },
+                        handler
+                    )
+                    .build();
+            audioManager.requestAudioFocus(currentFocusRequest);
+        } else {
+            audioManager.requestAudioFocus(null, AudioManager.STREAM_MUSIC, AudioManager.AUDIOFOCUS_GAIN_TRANSIENT_MAY_DUCK);
+        }
+        sessionActive = true;
+        sessionForceSpeaker = forceSpeaker;
+    }
+
+    private void scheduleSessionEnd() {
+        if (!sessionActive) {
+            return;
+        }
+        handler.removeCallbacks(endSession);
+        if (focusLingerMs == 0) {
+            endAudioSession();
+        } else {
+            handler.postDelayed(endSession, focusLingerMs);
+        }
+    }
+
+    private void endAudioSession() {
+        handler.removeCallbacks(endSession);
+        sessionActive = false;
+        abandonAudioFocus();
+    }
+
+    private void abandonAudioFocus() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O && currentFocusRequest != null) {
+            audioManager.abandonAudioFocusRequest(currentFocusRequest);
+            currentFocusRequest = null;
+        } else {
+            audioManager.abandonAudioFocus(null);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.getcapacitor.community.tts;
+
+import java.util.List;
+
+public interface PreloadResultCallback {
+    void onDone(List<String> handles);
+    void onError();
+}
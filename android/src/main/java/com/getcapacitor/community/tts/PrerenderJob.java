@@ -0,0 +1,165 @@
+package com.getcapacitor.community.tts;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A list of texts to render into the {@link PromptStore}. The definition is saved to disk when the job is created,
+ * so it can be resumed after the process has died; texts that are already in the store count as completed.
+ */
+class PrerenderJob {
+
+    static final String EXTENSION = ".job";
+    private static final int VERSION = 1;
+
+    final String id;
+    final List<String> texts;
+    final String lang;
+    // 保存语音名称而不是下标，引擎更新后恢复任务仍使用同一语音
+    final String voiceURI;
+    final float rate;
+    final float pitch;
+    final int concurrency;
+    // 由 TextToSpeech 在启动任务时设置，不保存到磁盘
+    PrerenderListener listener;
+
+    // 以下状态只在持有对象锁时访问
+    private final ArrayDeque<Integer> pending = new ArrayDeque<>();
+    private int inFlight = 0;
+    private int completed = 0;
+    private int failed = 0;
+    private boolean cancelled = false;
+
+    PrerenderJob(String id, List<String> texts, String lang, String voiceURI, float rate, float pitch, int concurrency) {
+        this.id = id;
+        this.texts = texts;
+        this.lang = lang;
+        this.voiceURI = voiceURI;
+        this.rate = rate;
+        this.pitch = pitch;
+        this.concurrency = Math.max(1, concurrency);
+    }
+
+    String key(int index) {
+        return AudioCache.key(texts.get(index), lang, voiceURI, rate, pitch);
+    }
+
+    /**
+     * Queues every text that is not in the store yet. Texts that are in the store, or that occur more than once,
+     * count as completed right away.
+     */
+    synchronized void start(PromptStore store) {
+        Set<String> queued = new HashSet<>();
+        for (int i = 0; i < texts.size(); i++) {
+            String key = key(i);
+            if (store.contains(key) || !queued.add(key)) {
+                completed++;
+            } else {
+                pending.add(i);
+            }
+        }
+    }
+
+    /**
+     * @return The index of the next text to render, or {@code -1} if the concurrency limit is reached or no text is left.
+     */
+    synchronized int next() {
+        if (cancelled || inFlight >= concurrency || pending.isEmpty()) {
+            return -1;
+        }
+        inFlight++;
+        return pending.poll();
+    }
+
+    synchronized void onRendered(boolean success) {
+        inFlight--;
+        if (success) {
+            completed++;
+        } else {
+            failed++;
+        }
+    }
+
+    /**
+     * Puts back a text whose synthesis was interrupted, e.g. by {@code stop()}.
+     */
+    synchronized void retry(int index) {
+        inFlight--;
+        pending.addFirst(index);
+    }
+
+    synchronized void cancel() {
+        cancelled = true;
+        pending.clear();
+    }
+
+    synchronized boolean isFinished() {
+        return inFlight == 0 && pending.isEmpty();
+    }
+
+    synchronized int getCompleted() {
+        return completed;
+    }
+
+    synchronized int getFailed() {
+        return failed;
+    }
+
+    int getTotal() {
+        return texts.size();
+    }
+
+    /**
+     * Writes the definition of the job. The file is replaced atomically, so a crash never leaves a truncated job.
+     */
+    void save(File file) throws IOException {
+        File partFile = new File(file.getPath() + ".part");
+        try (DataOutputStream output = new DataOutputStream(new FileOutputStream(partFile))) {
+            output.writeInt(VERSION);
+            output.writeUTF(lang);
+            output.writeBoolean(voiceURI != null);
+            if (voiceURI != null) {
+                output.writeUTF(voiceURI);
+            }
+            output.writeFloat(rate);
+            output.writeFloat(pitch);
+            output.writeInt(concurrency);
+            output.writeInt(texts.size());
+            for (String text : texts) {
+                output.writeUTF(text);
+            }
+        }
+        if (!partFile.renameTo(file)) {
+            partFile.delete();
+            throw new IOException("Cannot write " + file);
+        }
+    }
+
+    static PrerenderJob load(String id, File file) throws IOException {
+        try (DataInputStream input = new DataInputStream(new FileInputStream(file))) {
+            if (input.readInt() != VERSION) {
+                throw new IOException("Unsupported job file: " + file);
+            }
+            String lang = input.readUTF();
+            String voiceURI = input.readBoolean() ? input.readUTF() : null;
+            float rate = input.readFloat();
+            float pitch = input.readFloat();
+            int concurrency = input.readInt();
+            int count = input.readInt();
+            List<String> texts = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                texts.add(input.readUTF());
+            }
+            return new PrerenderJob(id, texts, lang, voiceURI, rate, pitch, concurrency);
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package com.getcapacitor.community.tts;
+
+public interface PrerenderListener {
+    void onProgress(String jobId, int completed, int failed, int total, boolean done);
+}
@@ -0,0 +1,153 @@
+package com.getcapacitor.community.tts;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * A read-only, memory-mapped file of prompts in 16-bit PCM, written by {@link PromptPackBuilder}.
+ * <p>
+ * Layout, little-endian: a 16-byte header ({@code "TTSP"}, version, entry count, reserved), the index of
+ * {@link #ENTRY_BYTES}-byte entries sorted by key, then the PCM data of all prompts back to back. An entry holds the
+ * {@link AudioCache#key} as 32 raw bytes, the absolute offset and length of its data, its sample rate and channel
+ * count. Lookups binary-search the mapped index and playback reads slices of the mapping, so neither opens a file
+ * nor copies audio onto the heap.
+ */
+class PromptPack {
+
+    static final int MAGIC = 'T' | 'T' << 8 | 'S' << 16 | 'P' << 24;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    static final int ENTRY_BYTES = 56;
+    static final int KEY_BYTES = 32;
+
+    final File file;
+    private final ByteBuffer buffer;
+    private final int count;
+
+    private PromptPack(File file, ByteBuffer buffer, int count) {
+        this.file = file;
+        this.buffer = buffer;
+        this.count = count;
+    }
+
+    /**
+     * Maps and validates a pack. The mapping stays valid after the file has been closed.
+     */
+    static PromptPack open(File file) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = new FileInputStream(file).getChannel()) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.limit() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a prompt pack: " + file);
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported prompt pack version " + buffer.getInt(4) + ": " + file);
+        }
+        int count = buffer.getInt(8);
+        if (count < 0 || HEADER_BYTES + (long) count * ENTRY_BYTES > buffer.limit()) {
+            throw new IOException("Truncated prompt pack index: " + file);
+        }
+        PromptPack pack = new PromptPack(file, buffer, count);
+        // 一次性校验索引，之后的查找和切片不再检查边界
+        for (int i = 0; i < count; i++) {
+            long offset = pack.getOffset(i);
+            int length = pack.getLength(i);
+            boolean inBounds = offset >= HEADER_BYTES && length >= 0 && offset + length <= buffer.limit();
+            if (!inBounds || pack.getSampleRate(i) <= 0 || pack.getChannelCount(i) <= 0) {
+                throw new IOException("Invalid prompt pack entry " + i + ": " + file);
+            }
+            if (i > 0 && pack.compareKeys(i - 1, i) >= 0) {
+                throw new IOException("Prompt pack index is not sorted: " + file);
+            }
+        }
+        return pack;
+    }
+
+    int size() {
+        return count;
+    }
+
+    /**
+     * @param key A hexadecimal {@link AudioCache#key}.
+     * @return The index of the prompt, or {@code -1} if the pack does not contain it.
+     */
+    int indexOf(String key) {
+        if (key.length() != KEY_BYTES * 2) {
+            return -1;
+        }
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int result = compareKey(middle, key);
+            if (result < 0) {
+                low = middle + 1;
+            } else if (result > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    int getSampleRate(int index) {
+        return buffer.getInt(entry(index) + 44);
+    }
+
+    int getChannelCount(int index) {
+        return buffer.getShort(entry(index) + 48);
+    }
+
+    int getLength(int index) {
+        return buffer.getInt(entry(index) + 40);
+    }
+
+    /**
+     * @return A read-only view of the PCM data of the prompt, positioned at its start.
+     */
+    ByteBuffer slice(int index) {
+        ByteBuffer view = buffer.asReadOnlyBuffer();
+        int offset = (int) getOffset(index);
+        view.limit(offset + getLength(index));
+        view.position(offset);
+        return view.slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private long getOffset(int index) {
+        return buffer.getLong(entry(index) + KEY_BYTES);
+    }
+
+    private static int entry(int index) {
+        return HEADER_BYTES + index * ENTRY_BYTES;
+    }
+
+    private int compareKey(int index, String key) {
+        int position = entry(index);
+        for (int i = 0; i < KEY_BYTES; i++) {
+            int stored = buffer.get(position + i) & 0xFF;
+            int wanted = Character.digit(key.charAt(i * 2), 16) << 4 | Character.digit(key.charAt(i * 2 + 1), 16);
+            if (stored != wanted) {
+                return stored < wanted ? -1 : 1;
+            }
+        }
+        return 0;
+    }
+
+    private int compareKeys(int first, int second) {
+        for (int i = 0; i < KEY_BYTES; i++) {
+            int a = buffer.get(entry(first) + i) & 0xFF;
+            int b = buffer.get(entry(second) + i) & 0xFF;
+            if (a != b) {
+                return a < b ? -1 : 1;
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,144 @@
+package com.getcapacitor.community.tts;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Writes a {@link PromptPack} from WAV files, e.g. the entries of the {@link PromptStore}, or from raw 16-bit PCM.
+ * Only the PCM data of each prompt is copied; WAV headers are dropped.
+ */
+class PromptPackBuilder {
+
+    /**
+     * The audio of one prompt, either a range of a WAV file or an array.
+     */
+    private static class Source {
+
+        File file;
+        long offset;
+        byte[] pcm;
+        int length;
+        int sampleRate;
+        int channelCount;
+    }
+
+    // 小写十六进制字符串的字典序与原始字节的无符号序一致，写出时即为索引顺序
+    private final TreeMap<String, Source> sources = new TreeMap<>();
+
+    /**
+     * Adds the PCM data of a WAV file. Adding a key twice replaces the earlier prompt.
+     */
+    PromptPackBuilder add(String key, File wavFile) throws IOException {
+        WavHeader header = WavHeader.read(wavFile);
+        if (header.bitsPerSample != 16) {
+            throw new IOException("Unsupported sample size " + header.bitsPerSample + ": " + wavFile);
+        }
+        if (header.dataLength > Integer.MAX_VALUE) {
+            throw new IOException("Prompt too large: " + wavFile);
+        }
+        Source source = new Source();
+        source.file = wavFile;
+        source.offset = header.dataOffset;
+        source.length = (int) header.dataLength;
+        source.sampleRate = header.sampleRate;
+        source.channelCount = header.channelCount;
+        put(key, source);
+        return this;
+    }
+
+    PromptPackBuilder add(String key, int sampleRate, int channelCount, byte[] pcm) {
+        Source source = new Source();
+        source.pcm = pcm;
+        source.length = pcm.length;
+        source.sampleRate = sampleRate;
+        source.channelCount = channelCount;
+        put(key, source);
+        return this;
+    }
+
+    int size() {
+        return sources.size();
+    }
+
+    /**
+     * Writes the pack into a temporary file that replaces {@code output} once complete, so a pack that is mapped
+     * by a running process is never overwritten in place.
+     */
+    void write(File output) throws IOException {
+        long dataOffset = PromptPack.HEADER_BYTES + (long) sources.size() * PromptPack.ENTRY_BYTES;
+        ByteBuffer index = ByteBuffer.allocate((int) dataOffset).order(ByteOrder.LITTLE_ENDIAN);
+        index.putInt(PromptPack.MAGIC).putInt(PromptPack.VERSION).putInt(sources.size()).putInt(0);
+        long offset = dataOffset;
+        for (Map.Entry<String, Source> entry : sources.entrySet()) {
+            Source source = entry.getValue();
+            index.put(toBytes(entry.getKey()));
+            index.putLong(offset).putInt(source.length).putInt(source.sampleRate);
+            index.putShort((short) source.channelCount).putShort((short) 16).putInt(0);
+            offset += source.length;
+        }
+        index.flip();
+
+        File partFile = new File(output.getPath() + ".part");
+        try (FileChannel channel = new FileOutputStream(partFile).getChannel()) {
+            while (index.hasRemaining()) {
+                channel.write(index);
+            }
+            for (Source source : sources.values()) {
+                if (source.pcm != null) {
+                    ByteBuffer data = ByteBuffer.wrap(source.pcm);
+                    while (data.hasRemaining()) {
+                        channel.write(data);
+                    }
+                } else {
+                    copy(source, channel);
+                }
+            }
+        } catch (IOException ex) {
+            partFile.delete();
+            throw ex;
+        }
+        if (!partFile.renameTo(output)) {
+            partFile.delete();
+            throw new IOException("Cannot write " + output);
+        }
+    }
+
+    private void put(String key, Source source) {
+        if (!key.matches("[0-9a-f]{" + PromptPack.KEY_BYTES * 2 + "}")) {
+            throw new IllegalArgumentException("Invalid prompt key: " + key);
+        }
+        if (source.sampleRate <= 0 || source.channelCount <= 0 || source.length % (2 * source.channelCount) != 0) {
+            throw new IllegalArgumentException("Invalid audio format for prompt " + key);
+        }
+        sources.put(key, source);
+    }
+
+    private static void copy(Source source, FileChannel output) throws IOException {
+        try (FileChannel input = new FileInputStream(source.file).getChannel()) {
+            long position = source.offset;
+            long end = source.offset + source.length;
+            while (position < end) {
+                long transferred = input.transferTo(position, end - position, output);
+                if (transferred <= 0) {
+                    throw new IOException("Unexpected end of " + source.file);
+                }
+                position += transferred;
+            }
+        }
+    }
+
+    private static byte[] toBytes(String key) {
+        byte[] bytes = new byte[PromptPack.KEY_BYTES];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) Integer.parseInt(key.substring(i * 2, i * 2 + 2), 16);
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,127 @@
+package com.getcapacitor.community.tts;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Persistent store of pre-rendered prompts, addressed by {@link AudioCache#key}. An append-only manifest lists
+ * the complete entries, so a file becomes visible only after it has been moved into the store. Unlike
+ * {@link AudioCache}, entries are never evicted.
+ */
+class PromptStore {
+
+    static final String MANIFEST = "manifest.tsv";
+    private static final String EXTENSION = ".wav";
+
+    private final File directory;
+    private final Map<String, Long> entries = new HashMap<>();
+    private long totalBytes = 0;
+    private boolean loaded = false;
+
+    PromptStore(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Reads the manifest. Called once in the background at startup, so lookups never wait for the disk.
+     */
+    synchronized void load() throws IOException {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        try (
+            BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(new File(directory, MANIFEST)), StandardCharsets.UTF_8)
+            )
+        ) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                String[] fields = line.split("\t");
+                try {
+                    put(fields[0], Long.parseLong(fields[1]));
+                } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+                    // 进程在追加时退出会留下不完整的最后一行，对应的文件会在下次渲染时重新生成
+                }
+            }
+        } catch (FileNotFoundException e) {
+            // 尚未渲染过任何提示音
+        }
+    }
+
+    /**
+     * @return The file of the given prompt, or {@code null} if it has not been rendered.
+     */
+    synchronized File find(String key) {
+        if (!entries.containsKey(key)) {
+            return null;
+        }
+        File file = fileFor(key);
+        return file.exists() ? file : null;
+    }
+
+    synchronized boolean contains(String key) {
+        return entries.containsKey(key);
+    }
+
+    synchronized boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    /**
+     * Moves a rendered file into the store and records it in the manifest.
+     */
+    synchronized File add(String key, File source) throws IOException {
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        File target = fileFor(key);
+        if (!source.renameTo(target)) {
+            throw new IOException("Cannot move " + source + " into the prompt store");
+        }
+        long size = target.length();
+        File manifest = new File(directory, MANIFEST);
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(manifest, true), StandardCharsets.UTF_8)) {
+            writer.write(key + '\t' + size + '\n');
+        }
+        put(key, size);
+        return target;
+    }
+
+    synchronized List<String> getKeys() {
+        return new ArrayList<>(entries.keySet());
+    }
+
+    synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    File getDirectory() {
+        return directory;
+    }
+
+    private void put(String key, long size) {
+        // 同一提示音重新渲染后清单中会出现两行，以最后一行为准
+        Long previous = entries.put(key, size);
+        totalBytes += size - (previous != null ? previous : 0);
+    }
+
+    private File fileFor(String key) {
+        return new File(directory, key + EXTENSION);
+    }
+}
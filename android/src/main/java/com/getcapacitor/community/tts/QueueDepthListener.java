@@ -0,0 +1,14 @@
+package com.getcapacitor.community.tts;
+
+/**
+ * Notified whenever the number or size of the queued segments changes.
+ */
+public interface QueueDepthListener {
+    /**
+     * @param pending Segments waiting for synthesis.
+     * @param pendingBytes Size of the text of the pending segments.
+     * @param queued Segments being synthesized or waiting for playback, including the one that is playing.
+     * @param queuedBytes Size of the synthesized audio that has not been played yet.
+     */
+    void onQueueDepth(int pending, long pendingBytes, int queued, long queuedBytes);
+}
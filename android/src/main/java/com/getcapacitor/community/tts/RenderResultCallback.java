@@ -0,0 +1,8 @@
+package com.getcapacitor.community.tts;
+
+import java.io.File;
+
+public interface RenderResultCallback {
+    void onDone(File file, int sampleRate, int channelCount, long durationMs);
+    void onError();
+}
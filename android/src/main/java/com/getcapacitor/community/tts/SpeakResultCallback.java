@@ -4,4 +4,13 @@ public interface SpeakResultCallback {
     void onDone();
     void onError();
     void onRangeStart(int start, int end);
+
+    /**
+     * Called instead of {@link #onError()} when the utterance was dropped from the queue before it was played.
+     *
+     * @param reason One of the {@code DROP_} constants of {@link TTSRequest}.
+     */
+    default void onDropped(String reason) {
+        onError();
+    }
 }
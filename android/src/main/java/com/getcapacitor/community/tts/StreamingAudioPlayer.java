@@ -0,0 +1,582 @@
+package com.getcapacitor.community.tts;
+
+import android.media.AudioAttributes;
+import android.media.AudioFormat;
+import android.media.AudioTrack;
+import android.os.Process;
+import android.util.Log;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Plays the PCM chunks delivered by the engine's synthesis callbacks through a single, reusable {@link AudioTrack}.
+ * The engine's binder thread only enqueues chunks; all track operations run on a dedicated writer thread.
+ */
+public class StreamingAudioPlayer {
+
+    public interface Listener {
+        /**
+         * Called on the writer thread right before the first chunk of an utterance is written.
+         */
+        void onStreamStart(boolean forceSpeaker, AudioAttributes audioAttributes);
+
+        /**
+         * Called on the writer thread once everything that was written has been played out.
+         */
+        void onStreamIdle();
+    }
+
+    private static final String LOG_TAG = "StreamingAudioPlayer";
+
+    // 每次写入的最大时长，保证 stop() 能及时打断写线程
+    private static final int WRITE_SLICE_MS = 20;
+    private static final long DRAIN_POLL_MS = 5;
+    private static final long DRAIN_MARGIN_MS = 250;
+
+    public static final int DEFAULT_FADE_MS = 5;
+    public static final float DEFAULT_TARGET_LEVEL_DB = -20.0f;
+    public static final float DEFAULT_SILENCE_THRESHOLD_DB = -50.0f;
+    // 短于此时长的语句不参与响度统计
+    private static final int MIN_LOUDNESS_FRAMES_MS = 100;
+    // 每个语音的响度按指数滑动平均更新
+    private static final double LOUDNESS_SMOOTHING = 0.3;
+
+    private static final int TYPE_BEGIN = 0;
+    private static final int TYPE_DATA = 1;
+    private static final int TYPE_END = 2;
+
+    /**
+     * The audio queued by one {@link #play} call, so that it can be cancelled on its own.
+     */
+    public static class Playback {
+
+        private volatile boolean cancelled = false;
+    }
+
+    private static class Command {
+
+        int type;
+        int generation;
+        String utteranceId;
+        // 仅 play() 写入的命令有值
+        Playback playback;
+        byte[] data;
+        ByteBuffer buffer;
+        int sampleRate;
+        int encoding;
+        int channelCount;
+        int audioChannel;
+        boolean forceSpeaker;
+        float volume;
+        String voiceKey;
+        boolean success;
+        SpeakResultCallback callback;
+
+        Command(int type, int generation, String utteranceId) {
+            this.type = type;
+            this.generation = generation;
+            this.utteranceId = utteranceId;
+        }
+    }
+
+    private static class Marker {
+
+        final long frame;
+        final SpeakResultCallback callback;
+
+        Marker(long frame, SpeakResultCallback callback) {
+            this.frame = frame;
+            this.callback = callback;
+        }
+    }
+
+    private final Listener listener;
+    private final LinkedBlockingQueue<Command> commands = new LinkedBlockingQueue<>();
+    private final Object trackLock = new Object();
+    private volatile int generation = 0;
+    private Thread writerThread;
+    private volatile int fadeMs = DEFAULT_FADE_MS;
+    private volatile boolean normalizeLoudness = false;
+    private volatile float targetLevelDb = DEFAULT_TARGET_LEVEL_DB;
+    private volatile boolean trimSilence = false;
+    private volatile float silenceThresholdDb = DEFAULT_SILENCE_THRESHOLD_DB;
+
+    // 以下字段只在写线程中访问
+    private final ArrayDeque<Marker> markers = new ArrayDeque<>();
+    private AudioTrack audioTrack;
+    private int trackSampleRate;
+    private int trackEncoding;
+    private int trackChannelCount;
+    private boolean trackForceSpeaker;
+    private int frameSize;
+    private long framesWritten;
+    private int seenGeneration = 0;
+    // 16 位 PCM 经过软件处理后以立体声输出，其他格式原样写入
+    private final PcmProcessor processor = new PcmProcessor();
+    private boolean processing;
+    private String currentVoiceKey;
+    private final Map<String, Double> voiceLoudness = new HashMap<>();
+
+    public StreamingAudioPlayer(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Configures the processing of 16-bit PCM. Takes effect with the next utterance.
+     *
+     * @param fadeMs Length of the fade-in and fade-out applied to every utterance, 0 to disable.
+     * @param normalizeLoudness Adjust the gain of every voice so that all voices play at {@code targetLevelDb}.
+     * @param targetLevelDb Target RMS level in dBFS.
+     * @param trimSilence Drop the leading and trailing silence of every utterance, so that consecutive utterances
+     *                    written back to back sound like one continuous stream.
+     * @param silenceThresholdDb Peak level in dBFS below which audio counts as silence.
+     */
+    public void setProcessing(
+        int fadeMs,
+        boolean normalizeLoudness,
+        float targetLevelDb,
+        boolean trimSilence,
+        float silenceThresholdDb
+    ) {
+        this.fadeMs = Math.max(0, fadeMs);
+        this.normalizeLoudness = normalizeLoudness;
+        this.targetLevelDb = targetLevelDb;
+        this.trimSilence = trimSilence;
+        this.silenceThresholdDb = silenceThresholdDb;
+    }
+
+    /**
+     * Announces a new utterance. Must be called from {@code onBeginSynthesis}.
+     *
+     * @param voiceKey Identifies the voice for loudness normalization.
+     */
+    public void begin(
+        String utteranceId,
+        int sampleRate,
+        int encoding,
+        int channelCount,
+        int audioChannel,
+        boolean forceSpeaker,
+        float volume,
+        String voiceKey
+    ) {
+        Command command = new Command(TYPE_BEGIN, generation, utteranceId);
+        command.sampleRate = sampleRate;
+        command.encoding = encoding;
+        command.channelCount = channelCount;
+        command.audioChannel = audioChannel;
+        command.forceSpeaker = forceSpeaker;
+        command.volume = volume;
+        command.voiceKey = voiceKey;
+        enqueue(command);
+    }
+
+    /**
+     * Queues a PCM chunk. Must be called from {@code onAudioAvailable}.
+     */
+    public void write(String utteranceId, byte[] audio) {
+        Command command = new Command(TYPE_DATA, generation, utteranceId);
+        command.data = audio;
+        enqueue(command);
+    }
+
+    /**
+     * Marks the end of an utterance. The callback fires once its last frame has been played,
+     * or immediately if synthesis failed.
+     */
+    public void end(String utteranceId, boolean success, SpeakResultCallback callback) {
+        Command command = new Command(TYPE_END, generation, utteranceId);
+        command.success = success;
+        command.callback = callback;
+        enqueue(command);
+    }
+
+    /**
+     * Plays audio that has already been synthesized into memory. Consecutive calls with the same format are
+     * written back to back into the same track, so they play without a gap.
+     *
+     * @return Handle for {@link #cancel}.
+     */
+    public Playback play(
+        String utteranceId,
+        PcmBuffer pcm,
+        int audioChannel,
+        boolean forceSpeaker,
+        float volume,
+        String voiceKey,
+        SpeakResultCallback callback
+    ) {
+        // 所有命令使用同一个 generation，避免 stop() 插在中间时只丢掉一部分
+        int playGeneration = generation;
+        Playback playback = new Playback();
+        Command begin = new Command(TYPE_BEGIN, playGeneration, utteranceId);
+        begin.playback = playback;
+        begin.sampleRate = pcm.sampleRate;
+        begin.encoding = pcm.encoding;
+        begin.channelCount = pcm.channelCount;
+        begin.audioChannel = audioChannel;
+        begin.forceSpeaker = forceSpeaker;
+        begin.volume = volume;
+        begin.voiceKey = voiceKey;
+        enqueue(begin);
+        List<ByteBuffer> chunks = pcm.getChunks();
+        for (ByteBuffer chunk : chunks) {
+            Command data = new Command(TYPE_DATA, playGeneration, utteranceId);
+            data.buffer = chunk;
+            data.playback = playback;
+            enqueue(data);
+        }
+        Command end = new Command(TYPE_END, playGeneration, utteranceId);
+        end.success = true;
+        end.callback = callback;
+        end.playback = playback;
+        enqueue(end);
+        return playback;
+    }
+
+    /**
+     * Stops writing the audio of one {@link #play} call and drops what is still queued for it. Utterances before
+     * and after it keep playing, and its callback is not invoked. What is already buffered in the track plays out.
+     */
+    public void cancel(Playback playback) {
+        playback.cancelled = true;
+        commands.removeIf((command) -> command.playback == playback);
+    }
+
+    /**
+     * Drops everything that is queued or buffered. Pending callbacks are not invoked.
+     */
+    public void stop() {
+        generation++;
+        commands.clear();
+        synchronized (trackLock) {
+            if (audioTrack != null) {
+                try {
+                    audioTrack.pause();
+                    audioTrack.flush();
+                } catch (IllegalStateException e) {
+                    Log.e(LOG_TAG, "Failed to stop audio track: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    public void release() {
+        stop();
+        synchronized (this) {
+            if (writerThread != null) {
+                writerThread.interrupt();
+                writerThread = null;
+            }
+        }
+    }
+
+    private void enqueue(Command command) {
+        commands.offer(command);
+        synchronized (this) {
+            if (writerThread == null) {
+                writerThread = new Thread(this::runWriter, LOG_TAG);
+                writerThread.start();
+            }
+        }
+    }
+
+    private void runWriter() {
+        Process.setThreadPriority(Process.THREAD_PRIORITY_URGENT_AUDIO);
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                Command command = commands.take();
+                if (seenGeneration != generation) {
+                    // stop() 已被调用，丢弃旧的进度
+                    markers.clear();
+                    framesWritten = 0;
+                    seenGeneration = generation;
+                }
+                if (isDropped(command)) {
+                    continue;
+                }
+                switch (command.type) {
+                    case TYPE_BEGIN:
+                        configure(command);
+                        break;
+                    case TYPE_DATA:
+                        writeChunk(command);
+                        break;
+                    case TYPE_END:
+                        finish(command);
+                        break;
+                }
+            }
+        } catch (InterruptedException e) {
+            // 正常退出
+        } finally {
+            releaseTrack();
+        }
+    }
+
+    private void configure(Command command) {
+        boolean process = command.encoding == AudioFormat.ENCODING_PCM_16BIT;
+        int outputChannels = process ? PcmProcessor.OUTPUT_CHANNELS : command.channelCount;
+        boolean formatChanged =
+            audioTrack == null ||
+            trackSampleRate != command.sampleRate ||
+            trackEncoding != command.encoding ||
+            trackChannelCount != outputChannels ||
+            trackForceSpeaker != command.forceSpeaker;
+        AudioAttributes audioAttributes = buildAudioAttributes(command.forceSpeaker);
+
+        if (formatChanged) {
+            drain();
+            releaseTrack();
+            AudioTrack track = createTrack(command.sampleRate, command.encoding, outputChannels, audioAttributes);
+            if (track == null) {
+                return;
+            }
+            synchronized (trackLock) {
+                audioTrack = track;
+            }
+            trackSampleRate = command.sampleRate;
+            trackEncoding = command.encoding;
+            trackChannelCount = outputChannels;
+            trackForceSpeaker = command.forceSpeaker;
+            frameSize = outputChannels * bytesPerSample(command.encoding);
+            framesWritten = 0;
+        }
+
+        processing = process;
+        currentVoiceKey = command.voiceKey;
+        if (processing) {
+            // 音量、声道和响度都在软件中处理
+            float gain = command.volume;
+            Double loudness = voiceLoudness.get(command.voiceKey);
+            if (normalizeLoudness && loudness != null) {
+                gain *= PcmProcessor.normalizationGain(loudness, targetLevelDb);
+            }
+            processor.begin(
+                command.sampleRate,
+                command.channelCount,
+                command.audioChannel,
+                gain,
+                fadeMs,
+                trimSilence,
+                silenceThresholdDb
+            );
+            audioTrack.setStereoVolume(1.0f, 1.0f);
+        } else {
+            // 设置音量和左右声道
+            float leftVolume = command.volume;
+            float rightVolume = command.volume;
+            switch (command.audioChannel) {
+                case 1: // 左声道
+                    rightVolume = 0.0f;
+                    break;
+                case 2: // 右声道
+                    leftVolume = 0.0f;
+                    break;
+                default: // 双声道
+                    break;
+            }
+            audioTrack.setStereoVolume(leftVolume, rightVolume);
+        }
+
+        if (audioTrack.getPlayState() != AudioTrack.PLAYSTATE_PLAYING) {
+            listener.onStreamStart(command.forceSpeaker, audioAttributes);
+            audioTrack.play();
+        }
+    }
+
+    private void writeChunk(Command command) {
+        if (audioTrack == null || (command.data == null && command.buffer == null)) {
+            return;
+        }
+        if (processing) {
+            int samples = command.buffer != null
+                ? processor.process(command.buffer)
+                : processor.process(command.data, 0, command.data.length);
+            writeSamples(processor.getOutput(), samples, command);
+            return;
+        }
+        ByteBuffer source = command.buffer != null ? command.buffer : ByteBuffer.wrap(command.data);
+        int sliceBytes = Math.max(frameSize, (trackSampleRate * WRITE_SLICE_MS / 1000) * frameSize);
+        int offset = source.position();
+        int total = source.limit();
+        // 复用同一个视图写入每个分片，不为每个分片分配对象
+        ByteBuffer slice = source.duplicate();
+        while (offset < total) {
+            if (isDropped(command)) {
+                return;
+            }
+            int length = Math.min(sliceBytes, total - offset);
+            slice.limit(offset + length);
+            slice.position(offset);
+            int written = audioTrack.write(slice, length, AudioTrack.WRITE_BLOCKING);
+            if (written < 0) {
+                Log.e(LOG_TAG, "AudioTrack write error: " + written);
+                return;
+            }
+            offset += written;
+            framesWritten += written / frameSize;
+            fireReachedMarkers();
+        }
+    }
+
+    /**
+     * Writes processed stereo samples in slices, like {@link #writeChunk} does for raw audio.
+     */
+    private void writeSamples(short[] samples, int count, Command command) {
+        int sliceSamples = Math.max(PcmProcessor.OUTPUT_CHANNELS, (trackSampleRate * WRITE_SLICE_MS / 1000) * PcmProcessor.OUTPUT_CHANNELS);
+        int offset = 0;
+        while (offset < count) {
+            if (isDropped(command)) {
+                return;
+            }
+            int length = Math.min(sliceSamples, count - offset);
+            int written = audioTrack.write(samples, offset, length, AudioTrack.WRITE_BLOCKING);
+            if (written < 0) {
+                Log.e(LOG_TAG, "AudioTrack write error: " + written);
+                return;
+            }
+            offset += written;
+            framesWritten += written / PcmProcessor.OUTPUT_CHANNELS;
+            fireReachedMarkers();
+        }
+    }
+
+    private void finish(Command command) {
+        if (processing && audioTrack != null) {
+            // 输出为淡出保留的最后几帧
+            writeSamples(processor.getOutput(), processor.end(), command);
+            if (command.success && processor.getFrameCount() >= (long) trackSampleRate * MIN_LOUDNESS_FRAMES_MS / 1000) {
+                Double loudness = voiceLoudness.get(currentVoiceKey);
+                double meanSquare = processor.getMeanSquare();
+                voiceLoudness.put(
+                    currentVoiceKey,
+                    loudness == null ? meanSquare : loudness + LOUDNESS_SMOOTHING * (meanSquare - loudness)
+                );
+            }
+        }
+        if (!command.success || audioTrack == null) {
+            if (command.callback != null) {
+                command.callback.onError();
+            }
+        } else {
+            markers.add(new Marker(framesWritten, command.callback));
+        }
+        if (commands.isEmpty()) {
+            drain();
+        }
+    }
+
+    /**
+     * Lets the track play out everything written so far, then resets it for the next utterance.
+     */
+    private void drain() {
+        if (audioTrack == null || audioTrack.getPlayState() != AudioTrack.PLAYSTATE_PLAYING) {
+            return;
+        }
+        int drainGeneration = generation;
+        audioTrack.stop();
+        long remainingFrames = framesWritten - headPosition();
+        long deadline = System.currentTimeMillis() + remainingFrames * 1000 / trackSampleRate + DRAIN_MARGIN_MS;
+        while (headPosition() < framesWritten && System.currentTimeMillis() < deadline && drainGeneration == generation) {
+            fireReachedMarkers();
+            try {
+                Thread.sleep(DRAIN_POLL_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        if (drainGeneration != generation) {
+            return;
+        }
+        // 停止后的 flush 会把播放位置归零
+        audioTrack.flush();
+        framesWritten = 0;
+        while (!markers.isEmpty()) {
+            Marker marker = markers.poll();
+            if (marker.callback != null) {
+                marker.callback.onDone();
+            }
+        }
+        listener.onStreamIdle();
+    }
+
+    /**
+     * Whether the command was dropped by {@link #stop} or {@link #cancel} after it was queued.
+     */
+    private boolean isDropped(Command command) {
+        return command.generation != generation || (command.playback != null && command.playback.cancelled);
+    }
+
+    private void fireReachedMarkers() {
+        long head = headPosition();
+        while (!markers.isEmpty() && markers.peek().frame <= head) {
+            Marker marker = markers.poll();
+            if (marker.callback != null) {
+                marker.callback.onDone();
+            }
+        }
+    }
+
+    private long headPosition() {
+        return audioTrack.getPlaybackHeadPosition() & 0xFFFFFFFFL;
+    }
+
+    private AudioTrack createTrack(int sampleRate, int encoding, int channelCount, AudioAttributes audioAttributes) {
+        int channelMask = channelCount == 1 ? AudioFormat.CHANNEL_OUT_MONO : AudioFormat.CHANNEL_OUT_STEREO;
+        int minBufferSize = AudioTrack.getMinBufferSize(sampleRate, channelMask, encoding);
+        if (minBufferSize <= 0) {
+            Log.e(LOG_TAG, "Unsupported stream format: " + sampleRate + "Hz, encoding " + encoding);
+            return null;
+        }
+        try {
+            return new AudioTrack.Builder()
+                .setAudioAttributes(audioAttributes)
+                .setAudioFormat(
+                    new AudioFormat.Builder()
+                        .setSampleRate(sampleRate)
+                        .setEncoding(encoding)
+                        .setChannelMask(channelMask)
+                        .build()
+                )
+                .setBufferSizeInBytes(minBufferSize * 2)
+                .setTransferMode(AudioTrack.MODE_STREAM)
+                .build();
+        } catch (Exception e) {
+            Log.e(LOG_TAG, "Failed to create audio track: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void releaseTrack() {
+        synchronized (trackLock) {
+            if (audioTrack != null) {
+                audioTrack.release();
+                audioTrack = null;
+            }
+        }
+    }
+
+    static AudioAttributes buildAudioAttributes(boolean forceSpeaker) {
+        return new AudioAttributes.Builder()
+            .setUsage(forceSpeaker ? AudioAttributes.USAGE_VOICE_COMMUNICATION : AudioAttributes.USAGE_MEDIA)
+            .setContentType(AudioAttributes.CONTENT_TYPE_SPEECH)
+            .build();
+    }
+
+    private static int bytesPerSample(int encoding) {
+        switch (encoding) {
+            case AudioFormat.ENCODING_PCM_8BIT:
+                return 1;
+            case AudioFormat.ENCODING_PCM_FLOAT:
+                return 4;
+            default:
+                return 2;
+        }
+    }
+}
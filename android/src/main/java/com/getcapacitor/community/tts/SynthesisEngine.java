@@ -0,0 +1,249 @@
+package com.getcapacitor.community.tts;
+
+import android.content.Context;
+import android.os.Bundle;
+import android.os.SystemClock;
+import android.speech.tts.UtteranceProgressListener;
+import android.speech.tts.Voice;
+import com.getcapacitor.JSObject;
+import java.io.File;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * One {@code android.speech.tts.TextToSpeech} instance of the engine pool. Every instance has its own
+ * language/rate/pitch state, so it is configured and fed under its own lock, and tracks how busy it is.
+ */
+class SynthesisEngine {
+
+    final int index;
+    private final android.speech.tts.TextToSpeech tts;
+    private volatile boolean ready = false;
+    private volatile VoiceTable voiceTable = VoiceTable.EMPTY;
+    // 设置参数与提交合成必须一起完成
+    private final Object lock = new Object();
+    private final EngineConfig config = new EngineConfig(
+        new EngineConfig.Target() {
+            @Override
+            public int setLanguage(String lang) {
+                return tts.setLanguage(Locale.forLanguageTag(lang));
+            }
+
+            @Override
+            public int setVoice(String voiceURI) {
+                return tts.setVoice(voiceTable.get(voiceURI));
+            }
+
+            @Override
+            public int setSpeechRate(float rate) {
+                return tts.setSpeechRate(rate);
+            }
+
+            @Override
+            public int setPitch(float pitch) {
+                return tts.setPitch(pitch);
+            }
+        }
+    );
+
+    // 已提交但尚未收到 done/error/stop 的 utteranceId
+    private final Set<String> pending = new HashSet<>();
+    private final long createdAt = SystemClock.elapsedRealtime();
+    private long busySince;
+    private long busyMs = 0;
+    private long completed = 0;
+    private boolean retired = false;
+    private boolean closed = false;
+
+    /**
+     * @param initListener Notified after this instance has been initialized, may be {@code null}.
+     * @param progressListener Shared by all instances; callbacks are dispatched by utteranceId.
+     */
+    SynthesisEngine(
+        Context context,
+        int index,
+        android.speech.tts.TextToSpeech.OnInitListener initListener,
+        UtteranceProgressListener progressListener
+    ) {
+        this.index = index;
+        this.tts = new android.speech.tts.TextToSpeech(context, (status) -> {
+            ready = status == android.speech.tts.TextToSpeech.SUCCESS;
+            if (initListener != null) {
+                initListener.onInit(status);
+            }
+        });
+        tts.setOnUtteranceProgressListener(
+            new UtteranceProgressListener() {
+                @Override
+                public void onStart(String utteranceId) {
+                    progressListener.onStart(utteranceId);
+                }
+
+                @Override
+                public void onBeginSynthesis(String utteranceId, int sampleRateInHz, int audioFormat, int channelCount) {
+                    progressListener.onBeginSynthesis(utteranceId, sampleRateInHz, audioFormat, channelCount);
+                }
+
+                @Override
+                public void onAudioAvailable(String utteranceId, byte[] audio) {
+                    progressListener.onAudioAvailable(utteranceId, audio);
+                }
+
+                @Override
+                public void onDone(String utteranceId) {
+                    // 先更新占用情况，回调里提交的下一个分段才能选到这个空闲的实例
+                    onFinished(utteranceId);
+                    progressListener.onDone(utteranceId);
+                }
+
+                @Override
+                public void onError(String utteranceId) {
+                    onFinished(utteranceId);
+                    progressListener.onError(utteranceId);
+                }
+
+                @Override
+                public void onStop(String utteranceId, boolean interrupted) {
+                    onFinished(utteranceId);
+                    progressListener.onStop(utteranceId, interrupted);
+                }
+
+                @Override
+                public void onRangeStart(String utteranceId, int start, int end, int frame) {
+                    progressListener.onRangeStart(utteranceId, start, end, frame);
+                }
+            }
+        );
+    }
+
+    boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Replaces the voices used to resolve {@code voiceURI}s and forgets the applied parameters.
+     */
+    void setVoiceTable(VoiceTable voiceTable) {
+        synchronized (lock) {
+            this.voiceTable = voiceTable;
+            config.invalidate();
+        }
+    }
+
+    /**
+     * @return One of {@code android.speech.tts.TextToSpeech.SUCCESS} or {@code ERROR}.
+     */
+    int synthesizeToFile(String text, String lang, String voiceURI, float rate, float pitch, Bundle params, File file, String utteranceId) {
+        synchronized (lock) {
+            // 指定了语音时语音本身决定语言
+            config.apply(lang, voiceTable.get(voiceURI) != null ? voiceURI : null, rate, pitch);
+            // 提交前登记，回调可能在 synthesizeToFile 返回之前到达
+            onSubmitted(utteranceId);
+            int result = tts.synthesizeToFile(text, params, file, utteranceId);
+            if (result != android.speech.tts.TextToSpeech.SUCCESS) {
+                onFinished(utteranceId);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Cancels all queued synthesis of this instance.
+     */
+    void stop() {
+        tts.stop();
+        synchronized (this) {
+            if (!pending.isEmpty()) {
+                busyMs += SystemClock.elapsedRealtime() - busySince;
+                pending.clear();
+            }
+        }
+        shutdownIfRetired();
+    }
+
+    /**
+     * @return Number of utterances submitted to this instance that have not finished yet.
+     */
+    synchronized int getLoad() {
+        return pending.size();
+    }
+
+    /**
+     * Removes this instance from service. It is shut down as soon as its queued utterances have finished.
+     */
+    void retire() {
+        synchronized (this) {
+            retired = true;
+        }
+        shutdownIfRetired();
+    }
+
+    void shutdown() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        // 关闭后不再视为可用
+        ready = false;
+        tts.shutdown();
+    }
+
+    private void shutdownIfRetired() {
+        boolean idle;
+        synchronized (this) {
+            idle = retired && pending.isEmpty();
+        }
+        if (idle) {
+            shutdown();
+        }
+    }
+
+    Set<Locale> getAvailableLanguages() {
+        return tts.getAvailableLanguages();
+    }
+
+    Set<Voice> getVoices() {
+        return tts.getVoices();
+    }
+
+    int isLanguageAvailable(Locale locale) {
+        return tts.isLanguageAvailable(locale);
+    }
+
+    synchronized JSObject getStats() {
+        long now = SystemClock.elapsedRealtime();
+        long busy = busyMs + (pending.isEmpty() ? 0 : now - busySince);
+        long elapsed = Math.max(1, now - createdAt);
+        JSObject stats = new JSObject();
+        stats.put("index", index);
+        stats.put("ready", ready);
+        stats.put("inFlight", pending.size());
+        stats.put("completed", completed);
+        stats.put("busyMs", busy);
+        stats.put("utilization", (double) busy / elapsed);
+        return stats;
+    }
+
+    private synchronized void onSubmitted(String utteranceId) {
+        if (pending.isEmpty()) {
+            busySince = SystemClock.elapsedRealtime();
+        }
+        pending.add(utteranceId);
+    }
+
+    private void onFinished(String utteranceId) {
+        synchronized (this) {
+            if (!pending.remove(utteranceId)) {
+                return;
+            }
+            completed++;
+            if (pending.isEmpty()) {
+                busyMs += SystemClock.elapsedRealtime() - busySince;
+            }
+        }
+        shutdownIfRetired();
+    }
+}
@@ -0,0 +1,177 @@
+package com.getcapacitor.community.tts;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ListIterator;
+
+/**
+ * A single segment of a speak() call on its way through synthesis and playback.
+ */
+class TTSRequest {
+
+    static final int PRIORITY_LOW = 0;
+    static final int PRIORITY_NORMAL = 1;
+    static final int PRIORITY_HIGH = 2;
+
+    // 未播放的分段被丢弃的原因，原样返回给 JS
+    static final String DROP_QUEUE_FULL = "queueFull";
+    static final String DROP_DISPLACED = "displaced";
+    static final String DROP_EXPIRED = "expired";
+
+    String text;
+    String utteranceId;
+    String lang;
+    float rate;
+    float pitch;
+    // null 表示使用语言的默认语音
+    String voiceURI;
+    int audioChannel;
+    boolean forceSpeaker;
+    float volume;
+    boolean streaming;
+    boolean memory;
+    int lookahead;
+    int priority = PRIORITY_NORMAL;
+    // 可以打断正在播放的低优先级请求
+    boolean preempt;
+    // 被打断后从分段开头重新播放，否则按失败处理
+    boolean resumable;
+    // SystemClock.elapsedRealtime() 时间，超过后尚未播放的分段被丢弃；0 表示不过期
+    long expiresAt;
+    Utterance utterance;
+    SpeakResultCallback callback;
+    String cacheKey;
+    File audioFile;
+    // 内存模式下合成结果保存在这里，不写临时文件
+    PcmBuffer pcm;
+    boolean cached;
+    boolean preloaded;
+    // 已合成、可以播放；流式分段表示轮到它时可以开始合成
+    boolean ready;
+    boolean failed;
+    // System.nanoTime()，提交给引擎的时间
+    long submittedAt;
+    // 流式请求已开始出声
+    boolean started;
+    // 已合成、等待播放的音频字节数，计入播放队列的字节上限
+    long queuedBytes;
+
+    TTSRequest(String text, String utteranceId, int audioChannel, boolean forceSpeaker, float volume, SpeakResultCallback callback) {
+        this.text = text;
+        this.utteranceId = utteranceId;
+        this.audioChannel = audioChannel;
+        this.forceSpeaker = forceSpeaker;
+        this.volume = volume;
+        this.callback = callback;
+    }
+
+    /**
+     * @return Identifies the voice that synthesizes this request, for per-voice loudness normalization.
+     */
+    String voiceKey() {
+        return voiceURI != null ? voiceURI : lang;
+    }
+
+    boolean isExpired(long now) {
+        return expiresAt != 0 && expiresAt < now;
+    }
+
+    /**
+     * Inserts a request behind all queued requests of the same or a higher priority,
+     * or with {@code aheadOfLane} in front of the requests of the same priority.
+     */
+    static void insertByPriority(List<TTSRequest> queue, TTSRequest request, boolean aheadOfLane) {
+        ListIterator<TTSRequest> iterator = queue.listIterator();
+        while (iterator.hasNext()) {
+            int queued = iterator.next().priority;
+            if (queued < request.priority || (aheadOfLane && queued == request.priority)) {
+                iterator.previous();
+                break;
+            }
+        }
+        iterator.add(request);
+    }
+
+    /**
+     * Collects the results of all segments of a single speak() call and reports them once.
+     */
+    static class Utterance {
+
+        final SpeakResultCallback callback;
+        final int segmentCount;
+        // System.nanoTime()，speak() 被调用的时间
+        final long requestedAt = System.nanoTime();
+        int completedSegments = 0;
+        boolean failed = false;
+        boolean started = false;
+        // 合并窗口内的查找键，未开启合并时为 null
+        String coalesceKey;
+        // 合并进来的相同 speak() 调用，随本次播放一起完成
+        private List<SpeakResultCallback> coalesced;
+
+        Utterance(SpeakResultCallback callback, int segmentCount) {
+            this.callback = callback;
+            this.segmentCount = segmentCount;
+        }
+
+        synchronized boolean segmentDone() {
+            completedSegments++;
+            return !failed && completedSegments == segmentCount;
+        }
+
+        synchronized boolean fail() {
+            if (failed) {
+                return false;
+            }
+            failed = true;
+            return true;
+        }
+
+        synchronized boolean isFailed() {
+            return failed;
+        }
+
+        /**
+         * Lets an identical speak() call share this utterance. This is only possible until playback has started,
+         * so the other call never hears a truncated announcement.
+         *
+         * @return Whether the callback has been attached.
+         */
+        synchronized boolean coalesce(SpeakResultCallback other) {
+            if (started || failed || completedSegments == segmentCount) {
+                return false;
+            }
+            if (coalesced == null) {
+                coalesced = new ArrayList<>();
+            }
+            coalesced.add(other);
+            return true;
+        }
+
+        /**
+         * @return The callback of the speak() call and of all calls coalesced into it.
+         */
+        synchronized List<SpeakResultCallback> getCallbacks() {
+            List<SpeakResultCallback> callbacks = new ArrayList<>();
+            if (callback != null) {
+                callbacks.add(callback);
+            }
+            if (coalesced != null) {
+                callbacks.addAll(coalesced);
+            }
+            return callbacks;
+        }
+
+        /**
+         * @return Whether this is the first segment of the utterance that starts playing.
+         */
+        synchronized boolean markStarted() {
+            if (started) {
+                return false;
+            }
+            started = true;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.getcapacitor.community.tts;
+
+import java.text.BreakIterator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Splits text into segments that can be synthesized independently.
+ * Every segment keeps its offset into the original string so that engine callbacks can be mapped back.
+ */
+public class TextSegmenter {
+
+    // 从句级别的断点，优先于空格
+    private static final String CLAUSE_DELIMITERS = ",;:、，；：—";
+
+    public static class Segment {
+
+        public final String text;
+        public final int start;
+        public final int end;
+
+        Segment(String text, int start, int end) {
+            this.text = text;
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    private final int maxLength;
+
+    /**
+     * @param maxLength Upper bound for the length of a single segment, usually {@code getMaxSpeechInputLength()}.
+     */
+    public TextSegmenter(int maxLength) {
+        this.maxLength = Math.max(1, maxLength);
+    }
+
+    /**
+     * @param sentences Split at every sentence boundary. Otherwise the text is only split when it exceeds the maximum length.
+     * @return Segments in order. Never empty: an empty or blank text yields a single segment covering the whole text.
+     */
+    public List<Segment> split(String text, Locale locale, boolean sentences) {
+        List<Segment> segments = new ArrayList<>();
+        if (!sentences) {
+            splitLong(text, 0, text.length(), segments);
+        } else {
+            BreakIterator iterator = BreakIterator.getSentenceInstance(locale);
+            iterator.setText(text);
+            int start = iterator.first();
+            for (int end = iterator.next(); end != BreakIterator.DONE; start = end, end = iterator.next()) {
+                splitLong(text, start, end, segments);
+            }
+        }
+        if (segments.isEmpty()) {
+            segments.add(new Segment(text, 0, text.length()));
+        }
+        return segments;
+    }
+
+    /**
+     * Adds the range {@code [start, end)} as one or more segments, breaking at clause delimiters or whitespace when it is too long.
+     */
+    private void splitLong(String text, int start, int end, List<Segment> segments) {
+        while (start < end) {
+            start = skipWhitespace(text, start, end);
+            if (start >= end) {
+                return;
+            }
+            int cut = end;
+            if (end - start > maxLength) {
+                cut = findBreak(text, start, start + maxLength);
+            }
+            int trimmedEnd = cut;
+            while (trimmedEnd > start && Character.isWhitespace(text.charAt(trimmedEnd - 1))) {
+                trimmedEnd--;
+            }
+            segments.add(new Segment(text.substring(start, trimmedEnd), start, trimmedEnd));
+            start = cut;
+        }
+    }
+
+    private static int findBreak(String text, int start, int limit) {
+        for (int i = limit - 1; i > start; i--) {
+            if (CLAUSE_DELIMITERS.indexOf(text.charAt(i)) >= 0) {
+                return i + 1;
+            }
+        }
+        for (int i = limit - 1; i > start; i--) {
+            if (Character.isWhitespace(text.charAt(i))) {
+                return i + 1;
+            }
+        }
+        // 没有合适的断点时硬切，但不拆开代理对
+        if (Character.isHighSurrogate(text.charAt(limit - 1))) {
+            return limit - 1 > start ? limit - 1 : limit + 1;
+        }
+        return limit;
+    }
+
+    private static int skipWhitespace(String text, int start, int end) {
+        while (start < end && Character.isWhitespace(text.charAt(start))) {
+            start++;
+        }
+        return start;
+    }
+}
@@ -1,213 +1,1442 @@
 package com.getcapacitor.community.tts;
 
-import android.bluetooth.BluetoothAdapter;
-import android.bluetooth.BluetoothDevice;
+import android.content.BroadcastReceiver;
 import android.content.Context;
 import android.content.Intent;
+import android.content.IntentFilter;
 import android.content.pm.PackageManager;
 import android.content.pm.ResolveInfo;
 import android.media.AudioAttributes;
-import android.media.AudioFocusRequest;
+import android.media.AudioFormat;
 import android.media.AudioManager;
-import android.media.MediaPlayer;
 import android.os.Build;
 import android.os.Bundle;
-import android.os.ParcelUuid;
+import android.os.SystemClock;
 import android.speech.tts.UtteranceProgressListener;
 import android.speech.tts.Voice;
 import android.util.Log;
 import com.getcapacitor.JSArray;
 import com.getcapacitor.JSObject;
 import java.io.File;
-import java.lang.reflect.Method;
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class TextToSpeech implements android.speech.tts.TextToSpeech.OnInitListener {
 
     public static final String LOG_TAG = "TextToSpeech";
 
+    public static final int MAX_ENGINES = 4;
+
     private Context context;
-    private android.speech.tts.TextToSpeech tts = null;
-    private int initializationStatus;
-    private JSObject[] supportedVoices = null;
-    private Map<String, SpeakResultCallback> requests = new HashMap();
-    private MediaPlayer mediaPlayer;
-    private LinkedBlockingQueue<TTSRequest> ttsQueue = new LinkedBlockingQueue<>();
-    private boolean isPlaying = false;
+    // 引擎实例池，第一个实例负责语言/语音查询，流式请求也只交给它以保证输出按顺序推流
+    private final List<SynthesisEngine> engines = new CopyOnWriteArrayList<>();
+    private UtteranceProgressListener progressListener;
+    private final InitResultCallback initCallback;
+    private final long initStartedAt = SystemClock.elapsedRealtime();
+    private volatile boolean initializing = true;
+    // 初始化后预热引擎所用的语言，null 表示不预热
+    private final String warmUpLang;
+    // onInit 之后构建一次，引擎语音数据变化时重建
+    private volatile VoiceTable voiceTable = VoiceTable.EMPTY;
+    private BroadcastReceiver voiceDataReceiver;
+    private UtteranceRegistry<TTSRequest> requests = new UtteranceRegistry<>();
     private AudioManager audioManager;
-    private AudioFocusRequest currentFocusRequest;
-
-    private class TTSRequest {
-
-        String text;
-        String utteranceId;
-        int audioChannel;
-        boolean forceSpeaker;
-        float volume;
-        SpeakResultCallback callback;
-
-        TTSRequest(String text, String utteranceId, int audioChannel, boolean forceSpeaker, float volume, SpeakResultCallback callback) {
-            this.text = text;
-            this.utteranceId = utteranceId;
-            this.audioChannel = audioChannel;
-            this.forceSpeaker = forceSpeaker;
-            this.volume = volume;
+    private AudioDeviceTable audioDevices;
+    private PlaybackScheduler playbackScheduler;
+    private StreamingAudioPlayer streamingPlayer;
+    private final Metrics metrics = new Metrics();
+    private final PcmBufferPool pcmPool = new PcmBufferPool(PcmBufferPool.DEFAULT_MAX_BYTES);
+    private TextSegmenter segmenter = new TextSegmenter(android.speech.tts.TextToSpeech.getMaxSpeechInputLength());
+    private AudioCache audioCache;
+    private File preloadDir;
+    private UtteranceFiles utteranceFiles;
+    private UtteranceRegistry<PreloadItem> preloads = new UtteranceRegistry<>();
+    private File renderDir;
+    private AudioEncoder audioEncoder = new AudioEncoder();
+    private UtteranceRegistry<RenderItem> renders = new UtteranceRegistry<>();
+    private PromptStore promptStore;
+    // 已映射的提示音包，先加载的优先
+    private final List<PromptPack> promptPacks = new CopyOnWriteArrayList<>();
+    private File prerenderDir;
+    private final Map<String, PrerenderJob> prerenderJobs = new ConcurrentHashMap<>();
+    private UtteranceRegistry<PrerenderItem> prerenders = new UtteranceRegistry<>();
+    // isLanguageSupported 的结果，语音数据变化时清空
+    private final Map<String, Boolean> languageSupport = new ConcurrentHashMap<>();
+
+    // 等待提交给引擎的分段，按优先级分道，同一优先级内按 speak() 调用顺序排列
+    private final LaneQueue<TTSRequest> synthesisBacklog = new LaneQueue<>();
+    // 已提交给引擎但尚未播放完毕的分段数
+    private int segmentsInFlight = 0;
+    // 播放队列的上限，超过时暂停合成；0 表示不限制
+    private int maxQueued = 0;
+    private long maxQueuedBytes = 0;
+    private final QueueDepthListener queueDepthListener;
+    // 上次报告的队列深度，只在变化时发送事件
+    private final long[] reportedQueueDepth = new long[4];
+    // 合并窗口内可供相同 speak() 调用加入的语句，按内容查找；窗口为 0 时不合并
+    private volatile long coalesceWindowMs = 0;
+    private final Map<String, TTSRequest.Utterance> coalescing = new ConcurrentHashMap<>();
+    // 已提交、等待按优先级和顺序进入播放队列的分段（合成完成或缓存命中后标记为 ready）
+    private final PendingPlayback pendingPlayback = new PendingPlayback();
+
+    // 流式和内存模式下合成结果只通过回调读取，输出文件不落盘
+    private static final File STREAMING_SINK = new File("/dev/null");
+    // 预热只需引擎加载语音数据，内容无关紧要
+    private static final String WARM_UP_TEXT = "Hi";
+
+    /**
+     * Tracks the utterances of one preload() call.
+     */
+    private class PreloadBatch {
+
+        final List<String> handles;
+        final PreloadResultCallback callback;
+        int remaining;
+        boolean failed = false;
+
+        PreloadBatch(List<String> handles, int remaining, PreloadResultCallback callback) {
+            this.handles = handles;
+            this.remaining = remaining;
+            this.callback = callback;
+        }
+
+        synchronized void onUtteranceDone() {
+            remaining--;
+            if (remaining == 0 && !failed) {
+                callback.onDone(handles);
+            }
+        }
+
+        synchronized void onUtteranceError() {
+            if (!failed) {
+                failed = true;
+                callback.onError();
+            }
+        }
+    }
+
+    /**
+     * A single utterance of a preload batch. It is synthesized into a temporary file that is renamed once complete,
+     * so a half-written file is never played.
+     */
+    private class PreloadItem implements UtteranceDispatcher.Item {
+
+        final PreloadBatch batch;
+        final File outputFile;
+        final File targetFile;
+
+        PreloadItem(PreloadBatch batch, File outputFile, File targetFile) {
+            this.batch = batch;
+            this.outputFile = outputFile;
+            this.targetFile = targetFile;
+        }
+
+        public void onDone() {
+            if (outputFile.renameTo(targetFile)) {
+                utteranceFiles.forget(outputFile);
+                batch.onUtteranceDone();
+            } else {
+                onError();
+            }
+        }
+
+        public void onError() {
+            utteranceFiles.release(outputFile);
+            batch.onUtteranceError();
+        }
+    }
+
+    /**
+     * A single render() call. The engine writes a temporary WAV file that is then converted into the requested format.
+     */
+    private class RenderItem implements UtteranceDispatcher.Item {
+
+        final File outputFile;
+        final File targetFile;
+        final String format;
+        final int bitRate;
+        final RenderResultCallback callback;
+
+        RenderItem(File outputFile, File targetFile, String format, int bitRate, RenderResultCallback callback) {
+            this.outputFile = outputFile;
+            this.targetFile = targetFile;
+            this.format = format;
+            this.bitRate = bitRate;
             this.callback = callback;
         }
+
+        public void onDone() {
+            audioEncoder.encode(
+                outputFile,
+                targetFile,
+                format,
+                bitRate,
+                new RenderResultCallback() {
+                    @Override
+                    public void onDone(File file, int sampleRate, int channelCount, long durationMs) {
+                        // WAV 格式的临时文件已被重命名，此处的删除不会生效
+                        utteranceFiles.release(outputFile);
+                        callback.onDone(file, sampleRate, channelCount, durationMs);
+                    }
+
+                    @Override
+                    public void onError() {
+                        RenderItem.this.onError();
+                    }
+                }
+            );
+        }
+
+        public void onError() {
+            utteranceFiles.release(outputFile);
+            callback.onError();
+        }
     }
 
-    TextToSpeech(Context context) {
+    /**
+     * A single text of a prerender job. Like a preload, it is synthesized into a temporary file that is moved
+     * into the prompt store once complete.
+     */
+    private class PrerenderItem implements UtteranceDispatcher.Item {
+
+        final PrerenderJob job;
+        final int index;
+        final File outputFile;
+
+        PrerenderItem(PrerenderJob job, int index, File outputFile) {
+            this.job = job;
+            this.index = index;
+            this.outputFile = outputFile;
+        }
+
+        public void onDone() {
+            boolean success = false;
+            try {
+                promptStore.add(job.key(index), outputFile);
+                utteranceFiles.forget(outputFile);
+                success = true;
+            } catch (IOException ex) {
+                Log.e(LOG_TAG, "Failed to store prompt: " + ex.getMessage());
+                utteranceFiles.release(outputFile);
+            }
+            job.onRendered(success);
+            onPrerenderProgress(job);
+        }
+
+        public void onError() {
+            utteranceFiles.release(outputFile);
+            job.onRendered(false);
+            onPrerenderProgress(job);
+        }
+    }
+
+    /**
+     * The engine is bound on a background thread; {@code initCallback} reports when it can be used.
+     *
+     * @param warmUpLang Synthesize a short utterance in this language right after initialization, so the first
+     *                   real utterance does not pay for loading the voice. {@code null} disables the warm-up.
+     * @param deviceListener Notified when Bluetooth audio outputs are connected or disconnected.
+     * @param queueDepthListener Notified whenever the number or size of the queued segments changes.
+     */
+    TextToSpeech(
+        Context context,
+        String warmUpLang,
+        InitResultCallback initCallback,
+        AudioDeviceTable.Listener deviceListener,
+        QueueDepthListener queueDepthListener
+    ) {
         this.context = context;
+        this.queueDepthListener = queueDepthListener;
+        this.warmUpLang = warmUpLang;
+        this.initCallback = initCallback;
         this.audioManager = (AudioManager) context.getSystemService(Context.AUDIO_SERVICE);
+        this.audioDevices = new AudioDeviceTable(audioManager, deviceListener);
+        this.audioCache = new AudioCache(new File(context.getCacheDir(), "tts-audio-cache"));
+        this.preloadDir = new File(context.getCacheDir(), "tts-preload");
+        // 渲染结果供应用长期使用，不放在可能被系统清理的缓存目录中
+        this.renderDir = new File(context.getFilesDir(), "tts-render");
+        this.promptStore = new PromptStore(new File(context.getFilesDir(), "tts-prompts"));
+        this.prerenderDir = new File(promptStore.getDirectory(), "jobs");
+        this.utteranceFiles = new UtteranceFiles(new File(context.getCacheDir(), "tts-utterances"));
+        // 清理上次进程异常退出时遗留的文件
+        utteranceFiles.sweep(utteranceFiles.getDirectory(), null);
+        utteranceFiles.sweep(preloadDir, ".tmp");
+        utteranceFiles.sweep(renderDir, ".tmp");
+        utteranceFiles.sweep(renderDir, ".part");
+        utteranceFiles.sweep(promptStore.getDirectory(), ".tmp");
+        this.streamingPlayer = new StreamingAudioPlayer(
+            new StreamingAudioPlayer.Listener() {
+                @Override
+                public void onStreamStart(boolean forceSpeaker, AudioAttributes audioAttributes) {
+                    playbackScheduler.onStreamStart(forceSpeaker, audioAttributes);
+                }
+
+                @Override
+                public void onStreamIdle() {
+                    playbackScheduler.onStreamIdle();
+                }
+            }
+        );
+        this.playbackScheduler = new PlaybackScheduler(
+            audioManager,
+            streamingPlayer,
+            metrics,
+            new PlaybackScheduler.Listener() {
+                @Override
+                public void onPlaybackFinished(TTSRequest request, boolean success) {
+                    releaseAudioFile(request);
+                    if (success) {
+                        request.callback.onDone();
+                    } else {
+                        request.callback.onError();
+                    }
+                    onPlaybackEnded(request);
+                }
+
+                @Override
+                public void onPlaybackDiscarded(TTSRequest request) {
+                    releaseAudioFile(request);
+                    notifyQueueDepth();
+                    onPlaybackEnded(request);
+                }
+
+                @Override
+                public void onAudioFocusLost() {
+                    stop();
+                }
+            }
+        );
         try {
-            tts = new android.speech.tts.TextToSpeech(context, this);
-            tts.setOnUtteranceProgressListener(
-                new UtteranceProgressListener() {
+            // 所有引擎实例共用这一个监听器，通过 utteranceId 把回调分发给对应的请求；
+            // done/error/stop 只有第一个能认领到请求，保证每个请求的结果只回调一次
+            UtteranceDispatcher dispatcher = new UtteranceDispatcher(
+                requests,
+                Arrays.asList(preloads, renders, prerenders),
+                new UtteranceDispatcher.RequestHandler() {
                     @Override
-                    public void onStart(String utteranceId) {}
+                    public void onBeginSynthesis(TTSRequest request, int sampleRateInHz, int audioFormat, int channelCount) {
+                        if (request.pcm != null) {
+                            request.pcm.setFormat(sampleRateInHz, audioFormat, channelCount);
+                        } else if (request.streaming) {
+                            streamingPlayer.begin(
+                                request.utteranceId,
+                                sampleRateInHz,
+                                audioFormat,
+                                channelCount,
+                                request.audioChannel,
+                                request.forceSpeaker,
+                                request.volume,
+                                request.voiceKey()
+                            );
+                        }
+                    }
+
+                    @Override
+                    public void onAudioAvailable(TTSRequest request, byte[] audio) {
+                        if (request.pcm != null) {
+                            request.pcm.append(audio);
+                        } else if (request.streaming) {
+                            if (!request.started) {
+                                // 流式请求在第一块音频写入时开始出声
+                                request.started = true;
+                                metrics.onPlaybackStarted(request);
+                            }
+                            streamingPlayer.write(request.utteranceId, audio);
+                        }
+                    }
 
                     @Override
-                    public void onDone(String utteranceId) {
-                        SpeakResultCallback callback = requests.get(utteranceId);
-                        if (callback != null) {
-                            callback.onDone();
-                            requests.remove(utteranceId);
+                    public void onRangeStart(TTSRequest request, int start, int end) {
+                        if (request.streaming) {
+                            request.callback.onRangeStart(start, end);
                         }
                     }
 
                     @Override
-                    public void onError(String utteranceId) {
-                        SpeakResultCallback callback = requests.get(utteranceId);
-                        if (callback != null) {
-                            callback.onError();
-                            requests.remove(utteranceId);
+                    public void onDone(TTSRequest request) {
+                        metrics.recordSynthesis(request);
+                        if (request.streaming) {
+                            streamingPlayer.end(request.utteranceId, true, streamCallback(request));
+                            return;
                         }
+                        if (request.pcm != null) {
+                            if (request.pcm.isOverflowed()) {
+                                synthesizeToFileInstead(request);
+                            } else {
+                                markReady(request);
+                            }
+                            return;
+                        }
+                        if (request.cacheKey != null) {
+                            File storedFile = audioCache.store(request.cacheKey, request.audioFile);
+                            request.cached = storedFile != request.audioFile;
+                            if (request.cached) {
+                                utteranceFiles.forget(request.audioFile);
+                            }
+                            request.audioFile = storedFile;
+                        }
+                        markReady(request);
+                    }
+
+                    @Override
+                    public void onError(TTSRequest request) {
+                        if (request.streaming) {
+                            streamingPlayer.end(request.utteranceId, false, streamCallback(request));
+                        } else {
+                            request.failed = true;
+                            markReady(request);
+                        }
+                    }
+                }
+            );
+            progressListener = new UtteranceProgressListener() {
+                @Override
+                public void onStart(String utteranceId) {}
+
+                @Override
+                public void onBeginSynthesis(String utteranceId, int sampleRateInHz, int audioFormat, int channelCount) {
+                    dispatcher.onBeginSynthesis(utteranceId, sampleRateInHz, audioFormat, channelCount);
+                }
+
+                @Override
+                public void onAudioAvailable(String utteranceId, byte[] audio) {
+                    dispatcher.onAudioAvailable(utteranceId, audio);
+                }
+
+                @Override
+                public void onDone(String utteranceId) {
+                    dispatcher.onDone(utteranceId);
+                }
+
+                @Override
+                public void onError(String utteranceId) {
+                    dispatcher.onError(utteranceId);
+                }
+
+                @Override
+                public void onStop(String utteranceId, boolean interrupted) {
+                    dispatcher.onStop(utteranceId);
+                }
+
+                @Override
+                public void onRangeStart(String utteranceId, int start, int end, int frame) {
+                    dispatcher.onRangeStart(utteranceId, start, end);
+                }
+            };
+        } catch (Exception ex) {
+            Log.d(LOG_TAG, ex.getLocalizedMessage());
+        }
+        // 绑定引擎服务可能耗时上百毫秒，不阻塞插件加载
+        new Thread(
+            () -> {
+                try {
+                    // 提前读入清单，speak() 查找预渲染的提示音时不访问磁盘
+                    promptStore.load();
+                } catch (IOException ex) {
+                    Log.e(LOG_TAG, "Failed to load prompt store: " + ex.getMessage());
+                }
+                // 缓存索引同样提前读入，首次查找时不列出缓存目录
+                audioCache.loadIndex();
+                try {
+                    synchronized (engines) {
+                        engines.add(new SynthesisEngine(context, 0, this, progressListener));
+                    }
+                } catch (Exception ex) {
+                    Log.e(LOG_TAG, "Failed to create engine: " + ex.getMessage());
+                    onInit(android.speech.tts.TextToSpeech.ERROR);
+                }
+            },
+            "TextToSpeechInit"
+        ).start();
+
+        // 引擎安装或更新语音数据后重建语音表
+        voiceDataReceiver = new BroadcastReceiver() {
+            @Override
+            public void onReceive(Context context, Intent intent) {
+                refreshVoices();
+            }
+        };
+        IntentFilter voiceDataFilter = new IntentFilter(android.speech.tts.TextToSpeech.Engine.ACTION_TTS_DATA_INSTALLED);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU) {
+            context.registerReceiver(voiceDataReceiver, voiceDataFilter, Context.RECEIVER_EXPORTED);
+        } else {
+            context.registerReceiver(voiceDataReceiver, voiceDataFilter);
+        }
+    }
+
+    @Override
+    public void onInit(int status) {
+        SynthesisEngine primary;
+        synchronized (engines) {
+            // 回调可能早于后台线程把实例加入池中
+            primary = primaryEngine();
+        }
+        initializing = false;
+        if (status == android.speech.tts.TextToSpeech.SUCCESS && primary != null) {
+            refreshVoices();
+            warmUp(primary);
+            initCallback.onDone(SystemClock.elapsedRealtime() - initStartedAt);
+        } else {
+            initCallback.onError();
+        }
+    }
+
+    /**
+     * @return Whether the engine is still being initialized. Calls made meanwhile can be retried once it is available.
+     */
+    public boolean isInitializing() {
+        return initializing;
+    }
+
+    /**
+     * Synthesizes a short utterance that is not played, so the engine loads the voice of {@link #warmUpLang}.
+     */
+    private void warmUp(SynthesisEngine engine) {
+        if (warmUpLang == null) {
+            return;
+        }
+        String utteranceId = "warmup-" + engine.index;
+        // 预热的 utteranceId 没有登记，其回调会被忽略
+        int result = engine.synthesizeToFile(
+            WARM_UP_TEXT,
+            warmUpLang,
+            null,
+            1.0f,
+            1.0f,
+            engineParams(utteranceId, 0f),
+            STREAMING_SINK,
+            utteranceId
+        );
+        if (result != android.speech.tts.TextToSpeech.SUCCESS) {
+            Log.w(LOG_TAG, "Failed to warm up engine " + engine.index);
+        }
+    }
+
+    private void refreshVoices() {
+        if (!isAvailable()) {
+            return;
+        }
+        languageSupport.clear();
+        try {
+            Set<Voice> engineVoices = engines.get(0).getVoices();
+            voiceTable = engineVoices != null ? new VoiceTable(engineVoices) : VoiceTable.EMPTY;
+            for (SynthesisEngine engine : engines) {
+                engine.setVoiceTable(voiceTable);
+            }
+        } catch (Exception ex) {
+            Log.e(LOG_TAG, "Failed to load voices: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * @return The {@code voiceURI} of the voice at the given index of {@link #getSupportedVoices}, or {@code null} for the default voice.
+     */
+    private String resolveVoice(int voice) {
+        Voice resolved = voiceTable.get(voice);
+        return resolved != null ? resolved.getName() : null;
+    }
+
+    public void speak(
+        String text,
+        String lang,
+        float rate,
+        float pitch,
+        float volume,
+        int voice,
+        int audioChannel,
+        String callbackId,
+        SpeakResultCallback resultCallback,
+        int queueStrategy,
+        boolean forceSpeaker,
+        boolean streaming,
+        boolean memory,
+        boolean chunking,
+        int lookahead,
+        int priority,
+        boolean preempt,
+        boolean resumable,
+        long ttlMs,
+        String handle
+    ) {
+        String voiceURI = resolveVoice(voice);
+        // 在 stop() 之前合并，重复的调用不会打断正在合成的同一内容
+        String coalesceKey = coalesceWindowMs > 0 && handle == null
+            ? coalesceKey(text, lang, voiceURI, rate, pitch, volume, audioChannel, forceSpeaker, priority, preempt, resumable, ttlMs)
+            : null;
+        if (coalesceKey != null && coalesce(coalesceKey, resultCallback)) {
+            return;
+        }
+
+        if (queueStrategy != android.speech.tts.TextToSpeech.QUEUE_ADD) {
+            stop();
+        }
+
+        long expiresAt = ttlMs > 0 ? SystemClock.elapsedRealtime() + ttlMs : 0;
+        if (handle != null) {
+            speakPreloaded(handle, audioChannel, forceSpeaker, volume, priority, preempt, resumable, expiresAt, callbackId, resultCallback);
+            return;
+        }
+
+        // 流式播放依赖 onBeginSynthesis/onAudioAvailable（API 24+），低版本回退到文件模式；
+        // 推流不经过播放调度器，无法打断其他请求，需要打断时改用内存模式
+        boolean useStreaming = streaming && !preempt && Build.VERSION.SDK_INT >= Build.VERSION_CODES.N;
+        // 内存模式同样依赖 onAudioAvailable
+        boolean useMemory = (memory || streaming) && !useStreaming && Build.VERSION.SDK_INT >= Build.VERSION_CODES.N;
+
+        // 超过引擎输入上限的文本总是会被切分；开启 chunking 时按句切分以缩短首句出声时间
+        List<TextSegmenter.Segment> segments = segmenter.split(text, Locale.forLanguageTag(lang), chunking);
+        TTSRequest.Utterance utterance = new TTSRequest.Utterance(resultCallback, segments.size());
+        long textBytes = 0;
+        for (TextSegmenter.Segment segment : segments) {
+            textBytes += textBytes(segment.text);
+        }
+
+        boolean accepted;
+        List<TTSRequest> rejected = new ArrayList<>();
+        List<TTSRequest> dropped = new ArrayList<>();
+        synchronized (synthesisBacklog) {
+            // 整句检查，不会只有一部分分段入队
+            accepted = synthesisBacklog.accepts(LaneQueue.clamp(priority), segments.size(), textBytes);
+            for (int i = 0; accepted && i < segments.size(); i++) {
+                TextSegmenter.Segment segment = segments.get(i);
+                String utteranceId = segments.size() == 1 ? callbackId : callbackId + "-" + i;
+                TTSRequest request = new TTSRequest(
+                    segment.text,
+                    utteranceId,
+                    audioChannel,
+                    forceSpeaker,
+                    volume,
+                    createSegmentCallback(utterance, segment.start)
+                );
+                request.lang = lang;
+                request.rate = rate;
+                request.pitch = pitch;
+                request.voiceURI = voiceURI;
+                request.streaming = useStreaming;
+                request.memory = useMemory;
+                if (audioCache.isEnabled() || !promptStore.isEmpty() || !promptPacks.isEmpty()) {
+                    request.cacheKey = AudioCache.key(segment.text, lang, voiceURI, rate, pitch);
+                }
+                request.lookahead = Math.max(0, lookahead);
+                request.utterance = utterance;
+                applyQueuePolicy(request, priority, preempt, resumable, expiresAt);
+                for (TTSRequest removed : synthesisBacklog.add(request, request.priority, expiresAt, textBytes(segment.text))) {
+                    // 按策略让位的可能是本次调用自己的分段
+                    (removed.utterance == utterance ? rejected : dropped).add(removed);
+                }
+            }
+            metrics.recordQueueDepth(synthesisBacklog.size() + pendingPlayback.size());
+        }
+        if (!accepted) {
+            resultCallback.onDropped(TTSRequest.DROP_QUEUE_FULL);
+            return;
+        }
+        if (coalesceKey != null) {
+            utterance.coalesceKey = coalesceKey;
+            coalescing.put(coalesceKey, utterance);
+        }
+        dropQueued(rejected, TTSRequest.DROP_QUEUE_FULL);
+        dropQueued(dropped, TTSRequest.DROP_DISPLACED);
+        submitSegments();
+    }
+
+    /**
+     * @return The size of the text in memory, counted against the byte limit of the synthesis backlog.
+     */
+    private static long textBytes(String text) {
+        return text.length() * 2L;
+    }
+
+    private void applyQueuePolicy(TTSRequest request, int priority, boolean preempt, boolean resumable, long expiresAt) {
+        request.priority = LaneQueue.clamp(priority);
+        request.preempt = preempt;
+        request.resumable = resumable;
+        request.expiresAt = expiresAt;
+    }
+
+    /**
+     * Fails segments that were removed from the backlog before they reached the engine, together with the
+     * remaining segments of their utterances, which would not be played anyway.
+     *
+     * @param reason Reported to the callbacks of the failed utterances.
+     */
+    private void dropQueued(List<TTSRequest> dropped, String reason) {
+        if (dropped.isEmpty()) {
+            return;
+        }
+        List<TTSRequest.Utterance> failed = new ArrayList<>();
+        for (TTSRequest request : dropped) {
+            if (request.utterance.fail()) {
+                failed.add(request.utterance);
+            }
+        }
+        synchronized (synthesisBacklog) {
+            synthesisBacklog.removeIf(request -> failed.contains(request.utterance));
+        }
+        // 尚未提交的分段不占用 segmentsInFlight，不能经由分段回调结束
+        for (TTSRequest.Utterance utterance : failed) {
+            for (SpeakResultCallback callback : finishUtterance(utterance)) {
+                callback.onDropped(reason);
+            }
+        }
+        notifyQueueDepth();
+    }
+
+    /**
+     * Plays an utterance prepared by {@link #preload}. It is queued like any other request but never touches the engine.
+     */
+    private void speakPreloaded(
+        String handle,
+        int audioChannel,
+        boolean forceSpeaker,
+        float volume,
+        int priority,
+        boolean preempt,
+        boolean resumable,
+        long expiresAt,
+        String callbackId,
+        SpeakResultCallback resultCallback
+    ) {
+        File audioFile = getPreloadedFile(handle);
+        if (audioFile == null) {
+            resultCallback.onError();
+            return;
+        }
+        TTSRequest.Utterance utterance = new TTSRequest.Utterance(resultCallback, 1);
+        TTSRequest request = new TTSRequest("", callbackId, audioChannel, forceSpeaker, volume, createSegmentCallback(utterance, 0));
+        request.utterance = utterance;
+        request.audioFile = audioFile;
+        request.preloaded = true;
+        applyQueuePolicy(request, priority, preempt, resumable, expiresAt);
+        List<TTSRequest> rejected = new ArrayList<>();
+        List<TTSRequest> dropped = new ArrayList<>();
+        synchronized (synthesisBacklog) {
+            // 预加载的音频已合成完毕，不计入待合成文本的字节数
+            for (TTSRequest removed : synthesisBacklog.add(request, request.priority, expiresAt, 0)) {
+                (removed == request ? rejected : dropped).add(removed);
+            }
+            metrics.recordQueueDepth(synthesisBacklog.size() + pendingPlayback.size());
+        }
+        dropQueued(rejected, TTSRequest.DROP_QUEUE_FULL);
+        dropQueued(dropped, TTSRequest.DROP_DISPLACED);
+        submitSegments();
+    }
+
+    /**
+     * Synthesizes the given texts in the background without playing them.
+     * The returned handles are derived from the synthesis parameters, so preloading the same prompt twice is cheap.
+     */
+    public void preload(List<String> texts, String lang, float rate, float pitch, int voice, PreloadResultCallback resultCallback) {
+        if (!preloadDir.exists() && !preloadDir.mkdirs()) {
+            resultCallback.onError();
+            return;
+        }
+        String voiceURI = resolveVoice(voice);
+        List<String> handles = new ArrayList<>(texts.size());
+        List<String> pendingTexts = new ArrayList<>();
+        List<String> pendingHandles = new ArrayList<>();
+        for (String text : texts) {
+            String handle = AudioCache.key(text, lang, voiceURI, rate, pitch);
+            handles.add(handle);
+            if (!new File(preloadDir, handle + ".wav").exists() && !pendingHandles.contains(handle)) {
+                pendingTexts.add(text);
+                pendingHandles.add(handle);
+            }
+        }
+        if (pendingTexts.isEmpty()) {
+            resultCallback.onDone(handles);
+            return;
+        }
+
+        PreloadBatch batch = new PreloadBatch(handles, pendingTexts.size(), resultCallback);
+        for (int i = 0; i < pendingTexts.size(); i++) {
+            String handle = pendingHandles.get(i);
+            String utteranceId = "preload-" + UUID.randomUUID();
+            File outputFile = utteranceFiles.track(new File(preloadDir, utteranceId + ".tmp"));
+            preloads.register(utteranceId, new PreloadItem(batch, outputFile, new File(preloadDir, handle + ".wav")));
+            int result = submitToEngine(pendingTexts.get(i), lang, voiceURI, rate, pitch, 1.0f, utteranceId, outputFile, false);
+            if (result != android.speech.tts.TextToSpeech.SUCCESS) {
+                PreloadItem preloadItem = preloads.claim(utteranceId);
+                if (preloadItem != null) {
+                    preloadItem.onError();
+                }
+            }
+        }
+    }
+
+    /**
+     * Synthesizes a text into a file that the app can keep, e.g. to ship prompts with it or to upload them.
+     * Rendering the same text with the same parameters again overwrites the previous file.
+     *
+     * @param format One of the {@code AudioEncoder.FORMAT_*} constants, see {@link AudioEncoder#isSupported}.
+     */
+    public void render(
+        String text,
+        String lang,
+        float rate,
+        float pitch,
+        int voice,
+        String format,
+        int bitRate,
+        RenderResultCallback resultCallback
+    ) {
+        if (!renderDir.exists() && !renderDir.mkdirs()) {
+            resultCallback.onError();
+            return;
+        }
+        String voiceURI = resolveVoice(voice);
+        String name = AudioCache.key(text, lang, voiceURI, rate, pitch) + "." + AudioEncoder.getExtension(format);
+        String utteranceId = "render-" + UUID.randomUUID();
+        File outputFile = utteranceFiles.track(new File(renderDir, utteranceId + ".tmp"));
+        renders.register(utteranceId, new RenderItem(outputFile, new File(renderDir, name), format, bitRate, resultCallback));
+        int result = submitToEngine(text, lang, voiceURI, rate, pitch, 1.0f, utteranceId, outputFile, false);
+        if (result != android.speech.tts.TextToSpeech.SUCCESS) {
+            RenderItem renderItem = renders.claim(utteranceId);
+            if (renderItem != null) {
+                renderItem.onError();
+            }
+        }
+    }
+
+    /**
+     * Starts rendering the given texts into the prompt store, or resumes a job that was interrupted, e.g. because the
+     * process died. Rendered prompts are played by {@link #speak} without invoking the engine.
+     *
+     * @param texts The texts to render, or {@code null} to resume the saved job with the given id.
+     * @param concurrency Number of texts queued on the engine at once. Live speech is queued behind them.
+     * @return The started job.
+     */
+    public PrerenderJob prerender(
+        String jobId,
+        List<String> texts,
+        String lang,
+        float rate,
+        float pitch,
+        int voice,
+        int concurrency,
+        PrerenderListener listener
+    ) throws IOException {
+        if (prerenderJobs.containsKey(jobId)) {
+            throw new IllegalStateException("Job " + jobId + " is already running.");
+        }
+        File jobFile = getPrerenderJobFile(jobId);
+        PrerenderJob job;
+        if (texts == null) {
+            job = PrerenderJob.load(jobId, jobFile);
+        } else {
+            if (!prerenderDir.exists() && !prerenderDir.mkdirs()) {
+                throw new IOException("Cannot create " + prerenderDir);
+            }
+            job = new PrerenderJob(jobId, texts, lang, resolveVoice(voice), rate, pitch, concurrency);
+            job.save(jobFile);
+        }
+        job.listener = listener;
+        job.start(promptStore);
+        if (prerenderJobs.putIfAbsent(jobId, job) != null) {
+            throw new IllegalStateException("Job " + jobId + " is already running.");
+        }
+        if (job.isFinished()) {
+            // 所有文本都已渲染过
+            onPrerenderProgress(job);
+        } else {
+            submitPrerender(job);
+        }
+        return job;
+    }
+
+    /**
+     * Stops a prerender job and discards its saved definition. Prompts that were already rendered are kept.
+     */
+    public void cancelPrerender(String jobId) {
+        PrerenderJob job = prerenderJobs.get(jobId);
+        getPrerenderJobFile(jobId).delete();
+        if (job != null) {
+            job.cancel();
+            if (job.isFinished()) {
+                // 没有正在合成的文本，不会再有回调结束任务
+                onPrerenderProgress(job);
+            }
+        }
+    }
+
+    /**
+     * @return The saved prerender jobs that have not finished yet, including those that can be resumed.
+     */
+    public JSArray getPrerenderJobs() {
+        JSArray result = new JSArray();
+        File[] files = prerenderDir.listFiles((dir, name) -> name.endsWith(PrerenderJob.EXTENSION));
+        if (files == null) {
+            return result;
+        }
+        for (File file : files) {
+            String jobId = file.getName().substring(0, file.getName().length() - PrerenderJob.EXTENSION.length());
+            PrerenderJob job = prerenderJobs.get(jobId);
+            boolean running = job != null;
+            try {
+                if (job == null) {
+                    job = PrerenderJob.load(jobId, file);
+                    job.start(promptStore);
+                }
+            } catch (IOException ex) {
+                Log.e(LOG_TAG, "Failed to read prerender job " + jobId + ": " + ex.getMessage());
+                continue;
+            }
+            JSObject obj = new JSObject();
+            obj.put("jobId", jobId);
+            obj.put("completed", job.getCompleted());
+            obj.put("failed", job.getFailed());
+            obj.put("total", job.getTotal());
+            obj.put("running", running);
+            result.put(obj);
+        }
+        return result;
+    }
+
+    private File getPrerenderJobFile(String jobId) {
+        // jobId 来自调用方，拒绝路径分隔符等字符
+        if (!jobId.matches("[0-9A-Za-z_-]+")) {
+            throw new IllegalArgumentException("Invalid job id: " + jobId);
+        }
+        return new File(prerenderDir, jobId + PrerenderJob.EXTENSION);
+    }
+
+    /**
+     * Hands texts of a prerender job to the engine up to its concurrency limit. While live segments are queued or
+     * being synthesized the job waits, so it never delays speech by more than the texts already submitted.
+     */
+    private void submitPrerender(PrerenderJob job) {
+        while (true) {
+            synchronized (synthesisBacklog) {
+                if (segmentsInFlight > 0 || !synthesisBacklog.isEmpty()) {
+                    return;
+                }
+            }
+            int index = job.next();
+            if (index < 0) {
+                return;
+            }
+            String utteranceId = "prerender-" + UUID.randomUUID();
+            File outputFile = utteranceFiles.track(new File(promptStore.getDirectory(), utteranceId + ".tmp"));
+            prerenders.register(utteranceId, new PrerenderItem(job, index, outputFile));
+            int result = submitToEngine(job.texts.get(index), job.lang, job.voiceURI, job.rate, job.pitch, 1.0f, utteranceId, outputFile, false);
+            if (result != android.speech.tts.TextToSpeech.SUCCESS) {
+                PrerenderItem prerenderItem = prerenders.claim(utteranceId);
+                if (prerenderItem != null) {
+                    prerenderItem.onError();
+                }
+            }
+        }
+    }
+
+    /**
+     * Maps a prompt pack, see {@link PromptPack}. Its prompts are played by {@link #speak} straight from memory.
+     * Loading a file again replaces the earlier mapping, e.g. after the pack has been rebuilt.
+     *
+     * @return The number of prompts in the pack.
+     */
+    public int loadPromptPack(File file) throws IOException {
+        PromptPack pack = PromptPack.open(file);
+        for (PromptPack loaded : promptPacks) {
+            if (loaded.file.equals(file)) {
+                promptPacks.remove(loaded);
+            }
+        }
+        promptPacks.add(pack);
+        return pack.size();
+    }
+
+    public void unloadPromptPacks() {
+        promptPacks.clear();
+    }
+
+    /**
+     * Packs every prompt of the prompt store into a single file and loads it. Prompts that cannot be read or have
+     * an unsupported format are left out instead of failing the whole pack.
+     *
+     * @param rejected Receives the keys of the prompts that were left out.
+     * @return The number of prompts in the pack.
+     */
+    public int buildPromptPack(File file, List<String> rejected) throws IOException {
+        PromptPackBuilder builder = new PromptPackBuilder();
+        for (String key : promptStore.getKeys()) {
+            File promptFile = promptStore.find(key);
+            if (promptFile == null) {
+                continue;
+            }
+            try {
+                builder.add(key, promptFile);
+            } catch (IOException | IllegalArgumentException ex) {
+                // 损坏或格式不支持的提示音跳过，不影响其余条目
+                Log.w(LOG_TAG, "Skipping prompt " + key + ": " + ex.getMessage());
+                rejected.add(key);
+            }
+        }
+        File directory = file.getParentFile();
+        if (directory != null && !directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        builder.write(file);
+        return loadPromptPack(file);
+    }
+
+    private void onPrerenderProgress(PrerenderJob job) {
+        if (!job.isFinished()) {
+            job.listener.onProgress(job.id, job.getCompleted(), job.getFailed(), job.getTotal(), false);
+            submitPrerender(job);
+            return;
+        }
+        // 取消与最后一个文本完成可能同时发生，只结束一次
+        if (!prerenderJobs.remove(job.id, job)) {
+            return;
+        }
+        // 失败的文本不会自动重试；用同一列表再次调用 prerender() 只渲染缺失的部分
+        getPrerenderJobFile(job.id).delete();
+        job.listener.onProgress(job.id, job.getCompleted(), job.getFailed(), job.getTotal(), true);
+    }
+
+    /**
+     * @return The file of a preloaded utterance, or {@code null} if the handle is unknown.
+     */
+    private File getPreloadedFile(String handle) {
+        // handle 是十六进制哈希，拒绝其它字符以防路径穿越
+        if (!handle.matches("[0-9a-f]+")) {
+            return null;
+        }
+        File file = new File(preloadDir, handle + ".wav");
+        return file.exists() ? file : null;
+    }
+
+    private SpeakResultCallback createSegmentCallback(TTSRequest.Utterance utterance, int offset) {
+        return new SpeakResultCallback() {
+            @Override
+            public void onDone() {
+                onSegmentFinished();
+                if (utterance.segmentDone()) {
+                    for (SpeakResultCallback callback : finishUtterance(utterance)) {
+                        callback.onDone();
                     }
+                }
+            }
 
-                    @Override
-                    public void onRangeStart(String utteranceId, int start, int end, int frame) {
-                        SpeakResultCallback callback = requests.get(utteranceId);
-                        if (callback != null) {
-                            callback.onRangeStart(start, end);
-                        }
+            @Override
+            public void onError() {
+                onSegmentFinished();
+                if (utterance.fail()) {
+                    for (SpeakResultCallback callback : finishUtterance(utterance)) {
+                        callback.onError();
                     }
                 }
-            );
-        } catch (Exception ex) {
-            Log.d(LOG_TAG, ex.getLocalizedMessage());
-        }
+            }
+
+            @Override
+            public void onRangeStart(int start, int end) {
+                // 将分段内的偏移映射回原始文本
+                if (utterance.callback != null) {
+                    utterance.callback.onRangeStart(offset + start, offset + end);
+                }
+            }
+        };
     }
 
-    @Override
-    public void onInit(int status) {
-        this.initializationStatus = status;
+    /**
+     * @return The callbacks to notify of the result of a finished utterance, including coalesced calls.
+     */
+    private List<SpeakResultCallback> finishUtterance(TTSRequest.Utterance utterance) {
+        if (utterance.coalesceKey != null) {
+            coalescing.remove(utterance.coalesceKey, utterance);
+        }
+        return utterance.getCallbacks();
     }
 
-    public void speak(
+    /**
+     * @return Key of a speak() call for coalescing. Besides the synthesis parameters, it covers everything that changes
+     *         how or whether the utterance is played, so only calls that would behave the same share one utterance.
+     */
+    private static String coalesceKey(
         String text,
         String lang,
+        String voiceURI,
         float rate,
         float pitch,
         float volume,
-        int voice,
         int audioChannel,
-        String callbackId,
-        SpeakResultCallback resultCallback,
-        int queueStrategy,
-        boolean forceSpeaker
+        boolean forceSpeaker,
+        int priority,
+        boolean preempt,
+        boolean resumable,
+        long ttlMs
     ) {
-        if (queueStrategy != android.speech.tts.TextToSpeech.QUEUE_ADD) {
-            stop();
-        }
-
-        // 设置语言等基本参数
-        Locale locale = Locale.forLanguageTag(lang);
-        tts.setLanguage(locale);
-        tts.setSpeechRate(rate);
-        tts.setPitch(pitch);
+        return (
+            AudioCache.key(text, lang, voiceURI, rate, pitch) +
+            '/' + volume +
+            '/' + audioChannel +
+            '/' + forceSpeaker +
+            '/' + priority +
+            '/' + preempt +
+            '/' + resumable +
+            '/' + ttlMs
+        );
+    }
 
-        // 创建临时文件
-        File outputFile = new File(context.getCacheDir(), callbackId + ".wav");
+    /**
+     * Attaches a speak() call to an identical one made within the coalescing window that has not started playing.
+     *
+     * @return Whether the call has been coalesced; otherwise it must be queued as usual.
+     */
+    private boolean coalesce(String key, SpeakResultCallback resultCallback) {
+        TTSRequest.Utterance pending = coalescing.get(key);
+        if (pending == null) {
+            return false;
+        }
+        boolean inWindow = System.nanoTime() - pending.requestedAt <= coalesceWindowMs * 1000000L;
+        if (inWindow && pending.coalesce(resultCallback)) {
+            return true;
+        }
+        // 窗口已过或已开始播放，由本次调用接替成为合并目标
+        coalescing.remove(key, pending);
+        return false;
+    }
 
-        Bundle params = new Bundle();
-        params.putString(android.speech.tts.TextToSpeech.Engine.KEY_PARAM_UTTERANCE_ID, callbackId);
-        params.putFloat(android.speech.tts.TextToSpeech.Engine.KEY_PARAM_VOLUME, volume);
+    private void onSegmentFinished() {
+        synchronized (synthesisBacklog) {
+            if (segmentsInFlight > 0) {
+                segmentsInFlight--;
+            }
+        }
+        submitSegments();
+        for (PrerenderJob job : prerenderJobs.values()) {
+            submitPrerender(job);
+        }
+    }
 
-        // 设置合成完成的监听器
-        tts.setOnUtteranceProgressListener(
-            new UtteranceProgressListener() {
-                @Override
-                public void onStart(String utteranceId) {}
+    /**
+     * Hands queued segments to the engine while the look-ahead window of the oldest pending segment allows it,
+     * so segment N+1 is synthesized while segment N is playing. With several engine instances, at least one
+     * segment per instance is synthesized ahead. High-priority segments get one extra slot, so they are
+     * synthesized while the window is filled with routine prompts.
+     */
+    private void submitSegments() {
+        while (true) {
+            TTSRequest request;
+            List<TTSRequest> expired;
+            synchronized (synthesisBacklog) {
+                expired = synthesisBacklog.expire(SystemClock.elapsedRealtime());
+                request = pollSubmittable();
+            }
+            dropQueued(expired, TTSRequest.DROP_EXPIRED);
+            if (request == null) {
+                notifyQueueDepth();
+                return;
+            }
+            if (request.preloaded) {
+                markReady(request);
+            } else {
+                submit(request);
+            }
+        }
+    }
 
-                @Override
-                public void onDone(String utteranceId) {
-                    TTSRequest request = new TTSRequest(text, utteranceId, audioChannel, forceSpeaker, volume, resultCallback);
-                    ttsQueue.offer(request);
+    /**
+     * Takes the next segment off the backlog if the look-ahead window allows it and reserves its place in
+     * {@code pendingPlayback}. Called with the backlog lock held, so it must not touch the disk.
+     */
+    private TTSRequest pollSubmittable() {
+        while (true) {
+            TTSRequest request = synthesisBacklog.peek();
+            if (request == null) {
+                return null;
+            }
+            if (request.utterance.isFailed()) {
+                // 同一次 speak() 的前一个分段已失败，后续分段不再合成
+                synthesisBacklog.poll();
+                continue;
+            }
+            int window = Math.max(request.lookahead, engines.size() - 1);
+            if (request.priority == TTSRequest.PRIORITY_HIGH) {
+                window++;
+            }
+            if (segmentsInFlight > window) {
+                return null;
+            }
+            // 播放队列已满时暂停合成，等待分段播放完毕
+            if (!pendingPlayback.admits(segmentsInFlight, maxQueued, maxQueuedBytes)) {
+                return null;
+            }
+            synthesisBacklog.poll();
+            segmentsInFlight++;
+            // 先占住播放顺序中的位置；查找预渲染和缓存的音频需要访问磁盘，在锁外进行
+            pendingPlayback.add(request);
+            return request;
+        }
+    }
 
-                    if (!isPlaying) {
-                        playNext();
+    /**
+     * Looks up a submitted segment in the prompt packs, the prompt store and the cache. A hit is queued for playback
+     * directly, a miss is handed to the engine; streamed segments are only synthesized once their turn comes.
+     * Runs without the backlog lock, so engine callbacks do not wait for the lookups.
+     */
+    private void submit(TTSRequest request) {
+        PcmBuffer packed = null;
+        File promptFile = null;
+        File cachedFile = null;
+        if (request.cacheKey != null) {
+            packed = findPacked(request.cacheKey);
+            if (packed == null) {
+                promptFile = promptStore.find(request.cacheKey);
+            }
+            if (packed == null && promptFile == null) {
+                cachedFile = audioCache.acquire(request.cacheKey);
+            }
+        }
+        boolean hit = packed != null || promptFile != null || cachedFile != null;
+        File outputFile = !hit && !request.memory && !request.streaming ? utteranceFiles.create(request.utteranceId) : null;
+        boolean discarded;
+        synchronized (synthesisBacklog) {
+            // 查找期间可能已被 stop() 丢弃
+            discarded = !pendingPlayback.contains(request);
+            if (!discarded) {
+                // 命中的音频由 markReady() 计入播放队列的字节数
+                if (packed != null) {
+                    // 直接播放映射内存中的切片，不打开文件也不准备播放器
+                    request.pcm = packed;
+                    request.streaming = false;
+                } else if (promptFile != null) {
+                    // 与预加载的文件一样，播放后保留
+                    request.audioFile = promptFile;
+                    request.preloaded = true;
+                    request.streaming = false;
+                } else if (cachedFile != null) {
+                    request.audioFile = cachedFile;
+                    request.cached = true;
+                    request.streaming = false;
+                } else {
+                    if (request.memory) {
+                        request.pcm = new PcmBuffer(pcmPool);
+                    } else if (request.streaming) {
+                        // 轮到它播放时才开始合成并推流
+                        request.ready = true;
+                    } else {
+                        request.audioFile = outputFile;
                     }
+                    requests.register(request.utteranceId, request);
                 }
+            }
+        }
+        if (discarded) {
+            if (cachedFile != null) {
+                audioCache.unpin(request.cacheKey);
+            }
+            if (outputFile != null) {
+                utteranceFiles.release(outputFile);
+            }
+            return;
+        }
+        if (hit) {
+            markReady(request);
+        } else if (request.ready) {
+            releaseReadyRequests();
+        } else {
+            synthesize(request);
+        }
+    }
 
-                @Override
-                public void onError(String utteranceId) {
-                    if (resultCallback != null) {
-                        resultCallback.onError();
-                    }
+    /**
+     * @return The audio of a packed prompt, or {@code null} if no loaded pack contains the key.
+     */
+    private PcmBuffer findPacked(String key) {
+        for (PromptPack pack : promptPacks) {
+            int index = pack.indexOf(key);
+            if (index >= 0) {
+                int sampleRate = pack.getSampleRate(index);
+                int channelCount = pack.getChannelCount(index);
+                return PcmBuffer.wrap(pack.slice(index), sampleRate, AudioFormat.ENCODING_PCM_16BIT, channelCount);
+            }
+        }
+        return null;
+    }
+
+    private void markReady(TTSRequest request) {
+        long bytes = 0;
+        if (!request.failed) {
+            bytes = request.pcm != null ? request.pcm.getByteCount() : request.audioFile != null ? request.audioFile.length() : 0;
+        }
+        synchronized (synthesisBacklog) {
+            pendingPlayback.markReady(request, bytes);
+        }
+        releaseReadyRequests();
+        notifyQueueDepth();
+    }
+
+    /**
+     * Hands the ready prefix of {@code pendingPlayback} to the scheduler, so playback order always matches submission order.
+     * A streamed segment whose turn has come starts synthesizing.
+     */
+    private void releaseReadyRequests() {
+        List<TTSRequest> released;
+        synchronized (synthesisBacklog) {
+            released = pendingPlayback.pollReleasable();
+        }
+        for (TTSRequest request : released) {
+            if (request.failed) {
+                releaseAudioFile(request);
+                request.callback.onError();
+            } else if (request.streaming) {
+                if (request.utterance.isFailed() || request.isExpired(SystemClock.elapsedRealtime())) {
+                    // 与播放调度器一样，跳过已失败语句的分段和已过期的分段
+                    requests.claim(request.utteranceId);
+                    finishStream(request, false);
+                } else {
+                    synthesize(request);
                 }
+            } else {
+                playbackScheduler.enqueue(request);
+            }
+        }
+    }
 
-                @Override
-                public void onRangeStart(String utteranceId, int start, int end, int frame) {}
+    private void onPlaybackEnded(TTSRequest request) {
+        synchronized (synthesisBacklog) {
+            pendingPlayback.onPlaybackFinished(request);
+        }
+        // 等待之前的分段播放完毕的流式分段可以开始了
+        releaseReadyRequests();
+    }
+
+    /**
+     * @return Callback for the end of a streamed segment, which lets the segments after it play.
+     */
+    private SpeakResultCallback streamCallback(TTSRequest request) {
+        return new SpeakResultCallback() {
+            @Override
+            public void onDone() {
+                finishStream(request, true);
             }
-        );
 
-        int result = tts.synthesizeToFile(text, params, outputFile, callbackId);
-        if (result != android.speech.tts.TextToSpeech.SUCCESS) {
-            if (resultCallback != null) {
-                resultCallback.onError();
+            @Override
+            public void onError() {
+                finishStream(request, false);
             }
-        }
+
+            @Override
+            public void onRangeStart(int start, int end) {}
+        };
     }
 
-    private void setupAudioSession(boolean forceSpeaker, AudioAttributes audioAttributes) {
-        if (forceSpeaker) {
-            audioManager.setMode(AudioManager.MODE_IN_COMMUNICATION);
-            audioManager.setSpeakerphoneOn(true);
+    private void finishStream(TTSRequest request, boolean success) {
+        synchronized (synthesisBacklog) {
+            pendingPlayback.onStreamFinished(request);
+        }
+        if (success) {
+            request.callback.onDone();
         } else {
-            audioManager.setMode(AudioManager.MODE_NORMAL);
-            audioManager.setSpeakerphoneOn(false);
+            request.callback.onError();
+        }
+        releaseReadyRequests();
+    }
+
+    /**
+     * Synthesizes an in-memory request again into a file, after its audio did not fit into the PCM budget.
+     */
+    private void synthesizeToFileInstead(TTSRequest request) {
+        request.pcm.release();
+        request.pcm = null;
+        String utteranceId = request.utteranceId + "-file";
+        File outputFile = utteranceFiles.create(utteranceId);
+        synchronized (synthesisBacklog) {
+            if (!pendingPlayback.contains(request)) {
+                // 已被 stop() 丢弃
+                utteranceFiles.release(outputFile);
+                return;
+            }
+            request.utteranceId = utteranceId;
+            request.audioFile = outputFile;
+            requests.register(request.utteranceId, request);
         }
+        synthesize(request);
+    }
 
-        // 请求音频焦点
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
-            // 如果存在之前的请求，先放弃它
-            if (currentFocusRequest != null) {
-                audioManager.abandonAudioFocusRequest(currentFocusRequest);
+    private void synthesize(TTSRequest request) {
+        File outputFile = request.streaming || request.pcm != null ? STREAMING_SINK : request.audioFile;
+        request.submittedAt = System.nanoTime();
+        int result = submitToEngine(
+            request.text,
+            request.lang,
+            request.voiceURI,
+            request.rate,
+            request.pitch,
+            request.volume,
+            request.utteranceId,
+            outputFile,
+            request.streaming
+        );
+        if (result != android.speech.tts.TextToSpeech.SUCCESS) {
+            requests.claim(request.utteranceId);
+            if (request.streaming) {
+                finishStream(request, false);
+            } else {
+                request.failed = true;
+                markReady(request);
             }
+        }
+    }
 
-            currentFocusRequest =
-                new AudioFocusRequest.Builder(AudioManager.AUDIOFOCUS_GAIN_TRANSIENT_MAY_DUCK)
-                    .setAudioAttributes(audioAttributes)
-                    .setOnAudioFocusChangeListener(
-                        focusChange -> {
-                            if (focusChange == AudioManager.AUDIOFOCUS_LOSS) {
-                                stop();
-                            }
-                        }
-                    )
-                    .build();
-            audioManager.requestAudioFocus(currentFocusRequest);
-        } else {
-            audioManager.requestAudioFocus(null, AudioManager.STREAM_MUSIC, AudioManager.AUDIOFOCUS_GAIN_TRANSIENT_MAY_DUCK);
+    /**
+     * @param ordered Whether the output must not overlap with other ordered utterances, e.g. because it is streamed.
+     */
+    private int submitToEngine(
+        String text,
+        String lang,
+        String voiceURI,
+        float rate,
+        float pitch,
+        float volume,
+        String utteranceId,
+        File outputFile,
+        boolean ordered
+    ) {
+        SynthesisEngine engine = ordered ? primaryEngine() : selectEngine();
+        if (engine == null) {
+            return android.speech.tts.TextToSpeech.ERROR;
+        }
+        return engine.synthesizeToFile(text, lang, voiceURI, rate, pitch, engineParams(utteranceId, volume), outputFile, utteranceId);
+    }
+
+    private Bundle engineParams(String utteranceId, float volume) {
+        Bundle params = new Bundle();
+        params.putString(android.speech.tts.TextToSpeech.Engine.KEY_PARAM_UTTERANCE_ID, utteranceId);
+        params.putFloat(android.speech.tts.TextToSpeech.Engine.KEY_PARAM_VOLUME, volume);
+        return params;
+    }
+
+    private SynthesisEngine primaryEngine() {
+        return engines.isEmpty() ? null : engines.get(0);
+    }
+
+    /**
+     * @return The initialized instance with the fewest queued utterances; ties go to the lowest index.
+     */
+    private SynthesisEngine selectEngine() {
+        SynthesisEngine selected = primaryEngine();
+        int selectedLoad = Integer.MAX_VALUE;
+        for (SynthesisEngine engine : engines) {
+            if (!engine.isReady()) {
+                continue;
+            }
+            int load = engine.getLoad();
+            if (load < selectedLoad) {
+                selected = engine;
+                selectedLoad = load;
+            }
         }
+        return selected;
     }
 
     public void setAudioRoute(boolean forceSpeaker) {
@@ -227,129 +1456,232 @@ public class TextToSpeech implements android.speech.tts.TextToSpeech.OnInitListe
         }
     }
 
-    private void playNext() {
-        if (ttsQueue.isEmpty()) {
-            isPlaying = false;
+    /**
+     * Deletes a temporary utterance file, or unpins it if it is owned by the cache.
+     */
+    private void releaseAudioFile(TTSRequest request) {
+        synchronized (synthesisBacklog) {
+            pendingPlayback.release(request);
+        }
+        if (request.pcm != null) {
+            // 缓冲区归还给池，供后续请求复用
+            request.pcm.release();
+            return;
+        }
+        if (request.preloaded) {
+            // 预加载的文件可以重复播放，不删除
             return;
         }
+        if (request.cached) {
+            audioCache.unpin(request.cacheKey);
+        } else if (request.audioFile != null) {
+            utteranceFiles.release(request.audioFile);
+        }
+    }
+
+    public void stop() {
+        // 取消所有引擎实例中尚未完成的合成，避免被打断的请求在之后继续入队或推流
+        for (SynthesisEngine engine : engines) {
+            engine.stop();
+        }
+        playbackScheduler.stop();
+        streamingPlayer.stop();
+        List<TTSRequest> discarded;
+        synchronized (synthesisBacklog) {
+            synthesisBacklog.clear();
+            discarded = pendingPlayback.clear();
+            segmentsInFlight = 0;
+        }
+        for (TTSRequest request : discarded) {
+            releaseAudioFile(request);
+        }
+        // 认领所有尚未完成的请求，之后到达的引擎回调会被忽略
+        requests.claimAll();
+        coalescing.clear();
+        // engine.stop() 也取消了尚未完成的预加载、渲染和预渲染
+        for (PreloadItem preloadItem : preloads.claimAll()) {
+            preloadItem.onError();
+        }
+        for (RenderItem renderItem : renders.claimAll()) {
+            renderItem.onError();
+        }
+        // 被中止的预渲染文本放回任务，立即重新提交，任务不会因 stop() 停滞
+        for (PrerenderItem prerenderItem : prerenders.claimAll()) {
+            utteranceFiles.release(prerenderItem.outputFile);
+            prerenderItem.job.retry(prerenderItem.index);
+        }
+        for (PrerenderJob job : prerenderJobs.values()) {
+            submitPrerender(job);
+        }
+        notifyQueueDepth();
+    }
 
-        isPlaying = true;
-        TTSRequest request = ttsQueue.poll();
-        File audioFile = new File(context.getCacheDir(), request.utteranceId + ".wav");
+    public void configureCache(boolean enabled, long maxBytes) {
+        audioCache.configure(enabled, maxBytes);
+    }
 
-        try {
-            if (!audioFile.exists()) {
-                Log.e(LOG_TAG, "Audio file not found: " + audioFile.getPath());
-                if (request.callback != null) {
-                    request.callback.onError();
-                }
-                playNext();
+    /**
+     * Bounds the queue. Segments waiting for synthesis are limited per priority lane and in total; when a limit is
+     * reached, {@code overloadPolicy} decides whether the new call is rejected or queued segments are dropped.
+     * Segments being synthesized or waiting for playback are limited by pausing synthesis instead.
+     * All limits use {@code 0} for no limit.
+     *
+     * @param maxDepth Limit per lane, indexed by priority.
+     * @param maxPending Number of segments waiting for synthesis.
+     * @param maxPendingBytes Size of the text waiting for synthesis.
+     * @param maxQueued Number of segments being synthesized or waiting for playback.
+     * @param maxQueuedBytes Size of the synthesized audio waiting for playback.
+     * @param overloadPolicy One of the {@code POLICY_} constants of {@link LaneQueue}.
+     * @param coalesceWindowMs speak() calls with the same text and options within this window share one utterance
+     *                         until it starts playing; {@code 0} disables coalescing.
+     */
+    public void configureQueue(
+        int[] maxDepth,
+        int maxPending,
+        long maxPendingBytes,
+        int maxQueued,
+        long maxQueuedBytes,
+        int overloadPolicy,
+        long coalesceWindowMs
+    ) {
+        this.coalesceWindowMs = Math.max(0, coalesceWindowMs);
+        if (coalesceWindowMs <= 0) {
+            coalescing.clear();
+        }
+        List<TTSRequest> dropped = new ArrayList<>();
+        synchronized (synthesisBacklog) {
+            for (int lane = 0; lane < Math.min(maxDepth.length, LaneQueue.LANES); lane++) {
+                dropped.addAll(synthesisBacklog.setMaxDepth(lane, maxDepth[lane]));
+            }
+            dropped.addAll(synthesisBacklog.setLimits(maxPending, maxPendingBytes, overloadPolicy));
+            this.maxQueued = Math.max(0, maxQueued);
+            this.maxQueuedBytes = Math.max(0, maxQueuedBytes);
+        }
+        dropQueued(dropped, TTSRequest.DROP_QUEUE_FULL);
+        // 放宽上限后可以继续合成
+        submitSegments();
+    }
+
+    /**
+     * Reports the depth of the queue to the listener if it has changed since the last report.
+     */
+    private void notifyQueueDepth() {
+        if (queueDepthListener == null) {
+            return;
+        }
+        // 串行报告，避免不同线程的报告乱序
+        synchronized (reportedQueueDepth) {
+            long[] depth;
+            synchronized (synthesisBacklog) {
+                depth = new long[] { synthesisBacklog.size(), synthesisBacklog.weight(), segmentsInFlight, pendingPlayback.getQueuedBytes() };
+            }
+            if (Arrays.equals(depth, reportedQueueDepth)) {
                 return;
             }
+            System.arraycopy(depth, 0, reportedQueueDepth, 0, depth.length);
+            queueDepthListener.onQueueDepth((int) depth[0], depth[1], (int) depth[2], depth[3]);
+        }
+    }
 
-            if (mediaPlayer != null) {
-                mediaPlayer.release();
-            }
-            mediaPlayer = new MediaPlayer();
-            mediaPlayer.setDataSource(audioFile.getPath());
-
-            // 设置音频属性
-            AudioAttributes audioAttributes = new AudioAttributes.Builder()
-                .setUsage(request.forceSpeaker ? AudioAttributes.USAGE_VOICE_COMMUNICATION : AudioAttributes.USAGE_MEDIA)
-                .setContentType(AudioAttributes.CONTENT_TYPE_SPEECH)
-                .build();
-            mediaPlayer.setAudioAttributes(audioAttributes);
-
-            // 设置音频会话
-            setupAudioSession(request.forceSpeaker, audioAttributes);
-
-            // 设置音量和左右声道
-            float leftVolume = request.volume;
-            float rightVolume = request.volume;
-            switch (request.audioChannel) {
-                case 1: // 左声道
-                    rightVolume = 0.0f;
-                    break;
-                case 2: // 右声道
-                    leftVolume = 0.0f;
-                    break;
-                default: // 双声道
-                    // 保持左右声道为 request.volume
-                    break;
-            }
-            mediaPlayer.setVolume(leftVolume, rightVolume);
-
-            mediaPlayer.setOnCompletionListener(
-                mp -> {
-                    audioFile.delete();
-                    // 释放音频焦点
-                    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O && currentFocusRequest != null) {
-                        audioManager.abandonAudioFocusRequest(currentFocusRequest);
-                        currentFocusRequest = null;
-                    } else {
-                        audioManager.abandonAudioFocus(null);
-                    }
-                    if (request.callback != null) {
-                        request.callback.onDone();
-                    }
-                    playNext();
-                }
-            );
+    public void configureAudioSession(long focusLingerMs) {
+        playbackScheduler.setFocusLinger(focusLingerMs);
+    }
 
-            mediaPlayer.setOnErrorListener(
-                (mp, what, extra) -> {
-                    Log.e(LOG_TAG, "MediaPlayer error: " + what + ", " + extra);
-                    audioFile.delete();
-                    if (request.callback != null) {
-                        request.callback.onError();
-                    }
-                    playNext();
-                    return true;
-                }
-            );
+    public void configureAudioProcessing(
+        int fadeMs,
+        boolean normalizeLoudness,
+        float targetLevelDb,
+        boolean trimSilence,
+        float silenceThresholdDb
+    ) {
+        streamingPlayer.setProcessing(fadeMs, normalizeLoudness, targetLevelDb, trimSilence, silenceThresholdDb);
+    }
 
-            mediaPlayer.prepare();
-            mediaPlayer.start();
-        } catch (Exception e) {
-            Log.e(LOG_TAG, "Error playing audio: " + e.getMessage());
-            audioFile.delete();
-            if (request.callback != null) {
-                request.callback.onError();
+    /**
+     * Grows or shrinks the engine pool. Removed instances finish their queued utterances before they are shut down.
+     */
+    public void configureEngines(int poolSize) {
+        int size = Math.max(1, Math.min(MAX_ENGINES, poolSize));
+        synchronized (engines) {
+            if (engines.isEmpty()) {
+                // 主实例仍在后台线程中创建，或创建失败
+                return;
+            }
+            while (engines.size() < size) {
+                int index = engines.size();
+                SynthesisEngine engine = new SynthesisEngine(context, index, (status) -> onEngineInit(index, status), progressListener);
+                engine.setVoiceTable(voiceTable);
+                engines.add(engine);
+            }
+            while (engines.size() > size) {
+                engines.remove(engines.size() - 1).retire();
             }
-            playNext();
         }
+        // 更大的池允许更多分段同时合成
+        submitSegments();
     }
 
-    public void stop() {
-        if (mediaPlayer != null) {
-            mediaPlayer.stop();
-            mediaPlayer.release();
-            mediaPlayer = null;
-        }
-        ttsQueue.clear();
-        isPlaying = false;
-
-        // 释放音频焦点
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O && currentFocusRequest != null) {
-            audioManager.abandonAudioFocusRequest(currentFocusRequest);
-            currentFocusRequest = null;
-        } else {
-            audioManager.abandonAudioFocus(null);
+    private void onEngineInit(int index, int status) {
+        SynthesisEngine engine;
+        synchronized (engines) {
+            engine = index < engines.size() ? engines.get(index) : null;
         }
+        if (engine != null && status == android.speech.tts.TextToSpeech.SUCCESS) {
+            warmUp(engine);
+        }
+    }
 
-        // 清理缓存文件
-        File cacheDir = context.getCacheDir();
-        File[] files = cacheDir.listFiles((dir, name) -> name.endsWith(".wav"));
-        if (files != null) {
-            for (File file : files) {
-                file.delete();
-            }
+    public JSObject getEngineStats() {
+        JSArray stats = new JSArray();
+        for (SynthesisEngine engine : engines) {
+            stats.put(engine.getStats());
+        }
+        JSObject result = new JSObject();
+        result.put("engines", stats);
+        return result;
+    }
+
+    /**
+     * @param reset Start a new measurement window after reading the current one.
+     */
+    public JSObject getMetrics(boolean reset) {
+        long hits = audioCache.getHits();
+        long misses = audioCache.getMisses();
+        JSObject result = metrics.toJSObject(hits, misses);
+        if (reset) {
+            metrics.reset(hits, misses);
         }
+        return result;
+    }
+
+    public JSObject getCacheStats() {
+        JSObject stats = new JSObject();
+        stats.put("hits", audioCache.getHits());
+        stats.put("misses", audioCache.getMisses());
+        stats.put("entries", audioCache.getEntryCount());
+        stats.put("bytes", audioCache.getTotalBytes());
+        stats.put("maxBytes", audioCache.getMaxBytes());
+        return stats;
+    }
+
+    public JSObject getPlaybackStats() {
+        PlaybackScheduler.GapStats gapStats = playbackScheduler.getGapStats();
+        JSObject stats = new JSObject();
+        stats.put("gaps", gapStats.getCount());
+        stats.put("averageGapMs", gapStats.getAverageMs());
+        stats.put("maxGapMs", gapStats.getMaxMs());
+        stats.put("lastGapMs", gapStats.getLastMs());
+        return stats;
     }
 
     public JSArray getSupportedLanguages() {
+        SynthesisEngine engine = primaryEngine();
+        if (engine == null || !engine.isReady()) {
+            // 引擎尚未初始化完成，或已在 onDestroy() 中关闭
+            throw new IllegalStateException(TextToSpeechPlugin.ERROR_NOT_AVAILABLE);
+        }
         ArrayList<String> languages = new ArrayList<>();
-        Set<Locale> supportedLocales = tts.getAvailableLanguages();
+        Set<Locale> supportedLocales = engine.getAvailableLanguages();
         for (Locale supportedLocale : supportedLocales) {
             String tag = supportedLocale.toLanguageTag();
             languages.add(tag);
@@ -359,30 +1691,17 @@ public class TextToSpeech implements android.speech.tts.TextToSpeech.OnInitListe
     }
 
     /**
-     * @return Ordered list of voices. The order is guaranteed to remain the same as long as the voices in tts.getVoices() do not change.
+     * @return Ordered list of voices. The order is guaranteed to remain the same as long as the voices of the engine do not change.
      */
     public ArrayList<Voice> getSupportedVoicesOrdered() {
-        Set<Voice> supportedVoices = tts.getVoices();
-        ArrayList<Voice> orderedVoices = new ArrayList<Voice>();
-        for (Voice supportedVoice : supportedVoices) {
-            orderedVoices.add(supportedVoice);
-        }
-
-        //voice.getName() is guaranteed to be unique, so will be used for sorting.
-        Collections.sort(orderedVoices, (v1, v2) -> v1.getName().compareTo(v2.getName()));
-
-        return orderedVoices;
+        return new ArrayList<>(voiceTable.getVoices());
     }
 
-    public JSArray getSupportedVoices() {
-        ArrayList<JSObject> voices = new ArrayList<>();
-        ArrayList<Voice> supportedVoices = getSupportedVoicesOrdered();
-        for (Voice supportedVoice : supportedVoices) {
-            JSObject obj = this.convertVoiceToJSObject(supportedVoice);
-            voices.add(obj);
-        }
-        JSArray result = JSArray.from(voices.toArray());
-        return result;
+    /**
+     * @param lang Only return voices for this BCP 47 language tag, or all voices if {@code null}.
+     */
+    public JSArray getSupportedVoices(String lang) {
+        return voiceTable.toJSArray(lang);
     }
 
     public void openInstall() {
@@ -399,117 +1718,55 @@ public class TextToSpeech implements android.speech.tts.TextToSpeech.OnInitListe
     }
 
     public boolean isAvailable() {
-        if (tts != null && initializationStatus == android.speech.tts.TextToSpeech.SUCCESS) {
+        SynthesisEngine engine = primaryEngine();
+        if (engine != null && engine.isReady()) {
             return true;
         }
         return false;
     }
 
+    /**
+     * @return Whether the engine can speak the BCP 47 language tag, {@code false} while the engine is not available.
+     */
     public boolean isLanguageSupported(String lang) {
-        Locale locale = Locale.forLanguageTag(lang);
-        int result = tts.isLanguageAvailable(locale);
-        return result == tts.LANG_AVAILABLE || result == tts.LANG_COUNTRY_AVAILABLE || result == tts.LANG_COUNTRY_VAR_AVAILABLE;
+        Boolean supported = languageSupport.get(lang);
+        if (supported == null) {
+            SynthesisEngine engine = primaryEngine();
+            if (engine == null || !engine.isReady()) {
+                // 引擎尚未初始化完成或已关闭；不缓存，引擎可用后重新查询
+                return false;
+            }
+            Locale locale = Locale.forLanguageTag(lang);
+            int result = engine.isLanguageAvailable(locale);
+            supported =
+                result == android.speech.tts.TextToSpeech.LANG_AVAILABLE ||
+                result == android.speech.tts.TextToSpeech.LANG_COUNTRY_AVAILABLE ||
+                result == android.speech.tts.TextToSpeech.LANG_COUNTRY_VAR_AVAILABLE;
+            languageSupport.put(lang, supported);
+        }
+        return supported;
     }
 
     public void onDestroy() {
         stop();
-        if (tts != null) {
-            tts.shutdown();
+        if (voiceDataReceiver != null) {
+            context.unregisterReceiver(voiceDataReceiver);
+            voiceDataReceiver = null;
+        }
+        audioDevices.release();
+        playbackScheduler.release();
+        streamingPlayer.release();
+        utteranceFiles.release();
+        audioEncoder.release();
+        for (SynthesisEngine engine : engines) {
+            engine.shutdown();
         }
     }
 
-    private JSObject convertVoiceToJSObject(Voice voice) {
-        Locale locale = voice.getLocale();
-        JSObject obj = new JSObject();
-        obj.put("voiceURI", voice.getName());
-        obj.put("name", locale.getDisplayLanguage() + " " + locale.getDisplayCountry());
-        obj.put("lang", locale.toLanguageTag());
-        obj.put("localService", !voice.isNetworkConnectionRequired());
-        obj.put("default", false);
-        return obj;
-    }
-
+    /**
+     * @return The connected Bluetooth audio outputs. The array is shared and must not be modified.
+     */
     public JSArray getConnectedAudioDevices() {
-        JSArray devices = new JSArray();
-
-        BluetoothAdapter bluetoothAdapter = BluetoothAdapter.getDefaultAdapter();
-        if (bluetoothAdapter == null) {
-            // 设备不支持蓝牙
-            return devices;
-        }
-        if (!bluetoothAdapter.isEnabled()) {
-            // 蓝牙功能未开启
-            return devices;
-        }
-
-        // 获取已配对的设备
-        Set<BluetoothDevice> pairedDevices = bluetoothAdapter.getBondedDevices();
-        if (pairedDevices == null || pairedDevices.isEmpty()) {
-            return devices;
-        }
-
-        // 获取已连接的设备
-        List<BluetoothDevice> connectedDevices = new ArrayList<>();
-        for (BluetoothDevice device : pairedDevices) {
-            try {
-                // 使用反射获取设备连接状态
-                Method isConnectedMethod = device.getClass().getMethod("isConnected");
-                boolean isConnected = (boolean) isConnectedMethod.invoke(device);
-
-                if (isConnected) {
-                    // 检查设备类型
-                    int deviceType = device.getType();
-                    // 只添加经典蓝牙或双模设备
-                    if (deviceType == BluetoothDevice.DEVICE_TYPE_CLASSIC || deviceType == BluetoothDevice.DEVICE_TYPE_DUAL) {
-                        // 使用蓝牙设备类进行标准过滤
-                        int deviceClass = device.getBluetoothClass().getMajorDeviceClass();
-                        
-                        // 只接受音频设备类
-                        // BluetoothClass.Device.Major.AUDIO_VIDEO = 0x400
-                        if (deviceClass == 0x400) {
-                            // 进一步检查设备是否支持音频输出
-                            Method getUuidsMethod = device.getClass().getMethod("getUuids");
-                            ParcelUuid[] uuids = (ParcelUuid[]) getUuidsMethod.invoke(device);
-                            if (uuids != null) {
-                                for (ParcelUuid uuid : uuids) {
-                                    // A2DP_SINK UUID: 0000110B-0000-1000-8000-00805F9B34FB
-                                    // HEADSET UUID: 0000110E-0000-1000-8000-00805F9B34FB
-                                    String uuidString = uuid.toString().toUpperCase();
-                                    if (uuidString.startsWith("0000110B") || uuidString.startsWith("0000110E")) {
-                                        connectedDevices.add(device);
-                                        break;
-                                    }
-                                }
-                            }
-                        }
-                    }
-                }
-            } catch (Exception e) {
-                Log.e(LOG_TAG, "Error checking device connection status: " + e.getMessage());
-            }
-        }
-
-        // 将已连接的设备信息添加到返回列表中
-        for (BluetoothDevice device : connectedDevices) {
-            try {
-                JSObject obj = new JSObject();
-                String aliasName = device.getAlias();
-                if (aliasName == null || aliasName.isEmpty()) {
-                    aliasName = device.getName() == null ? "Unknown Device" : device.getName();
-                }
-                obj.put("name", aliasName);
-                obj.put("uid", device.getAddress());
-                devices.put(obj);
-            } catch (Exception e) {
-                Log.e(LOG_TAG, "Error adding device to list: " + e.getMessage());
-            }
-        }
-
-        // 如果没有检测到设备，返回空列表
-        if (devices.length() == 0) {
-            Log.d(LOG_TAG, "No connected audio devices found");
-        }
-
-        return devices;
+        return audioDevices.getDevices();
     }
 }
@@ -1,5 +1,8 @@
 package com.getcapacitor.community.tts;
 
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Base64;
 import android.util.Log;
 import com.getcapacitor.JSArray;
@@ -8,6 +11,17 @@ import com.getcapacitor.Plugin;
 import com.getcapacitor.PluginCall;
 import com.getcapacitor.PluginMethod;
 import com.getcapacitor.annotation.CapacitorPlugin;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.json.JSONObject;
 
 @CapacitorPlugin(name = "TextToSpeech")
 public class TextToSpeechPlugin extends Plugin {
@@ -16,19 +30,112 @@ public class TextToSpeechPlugin extends Plugin {
 
     public static final String ERROR_UTTERANCE = "Failed to read text.";
     public static final String ERROR_UNSUPPORTED_LANGUAGE = "This language is not supported.";
+    public static final String ERROR_PRELOAD = "Failed to preload text.";
+    public static final String ERROR_RENDER = "Failed to render text.";
+    public static final String ERROR_UNSUPPORTED_FORMAT = "This audio format is not supported on this device.";
+    public static final String ERROR_EMPTY_BATCH = "No items to speak.";
+    public static final String ERROR_NOT_AVAILABLE = "Not yet initialized or not available on this device.";
+    public static final String ERROR_TOO_MANY_PENDING_CALLS = "Too many calls while the engine is initializing.";
+    public static final String ERROR_QUEUE_FULL = "The speech queue is full.";
+    public static final String ERROR_DISPLACED = "Dropped from the speech queue to make room.";
+    public static final String ERROR_EXPIRED = "Expired before it could be spoken.";
+
+    private static final int MAX_PENDING_CALLS = 32;
 
     private TextToSpeech implementation;
+    // 引擎初始化完成前到达的调用，按顺序保存；与 initialized 一样只在插件线程中访问
+    private final ArrayDeque<Runnable> pendingCalls = new ArrayDeque<>();
+    private boolean initialized = false;
+    // 定期发送 onMetrics 事件，间隔为 0 时停止；metricsIntervalMs 只在主线程中访问
+    private final Handler metricsHandler = new Handler(Looper.getMainLooper());
+    private long metricsIntervalMs = 0;
+    private final Runnable emitMetrics = new Runnable() {
+        @Override
+        public void run() {
+            if (metricsIntervalMs <= 0) {
+                return;
+            }
+            notifyListeners("onMetrics", implementation.getMetrics(false));
+            metricsHandler.postDelayed(this, metricsIntervalMs);
+        }
+    };
 
     @Override
     public void load() {
-        implementation = new TextToSpeech(getContext());
+        String warmUpLang = null;
+        if (getConfig().getBoolean("warmUp", false)) {
+            warmUpLang = getConfig().getString("warmUpLang", Locale.getDefault().toLanguageTag());
+        }
+        implementation = new TextToSpeech(
+            getContext(),
+            warmUpLang,
+            new InitResultCallback() {
+                @Override
+                public void onDone(long initMs) {
+                    getBridge()
+                        .execute(() -> {
+                            replayPendingCalls();
+                            JSObject ret = new JSObject();
+                            ret.put("initMs", initMs);
+                            // 保留事件，初始化后才注册的监听器也能收到
+                            notifyListeners("onReady", ret, true);
+                        });
+                }
+
+                @Override
+                public void onError() {
+                    // 等待中的调用会以 unavailable 结束
+                    getBridge().execute(() -> replayPendingCalls());
+                }
+            },
+            (devices) -> {
+                JSObject ret = new JSObject();
+                ret.put("devices", devices);
+                notifyListeners("onAudioDevicesChanged", ret);
+            },
+            (pending, pendingBytes, queued, queuedBytes) -> {
+                JSObject ret = new JSObject();
+                ret.put("pending", pending);
+                ret.put("pendingBytes", pendingBytes);
+                ret.put("queued", queued);
+                ret.put("queuedBytes", queuedBytes);
+                notifyListeners("onQueueDepth", ret);
+            }
+        );
+    }
+
+    /**
+     * Lets a call proceed once the engine is initialized. Calls that arrive earlier are buffered and replayed
+     * in order by {@link #replayPendingCalls()}.
+     *
+     * @return Whether the call can be executed now.
+     */
+    private boolean whenAvailable(PluginCall call, Runnable replay) {
+        if (initialized) {
+            if (implementation.isAvailable()) {
+                return true;
+            }
+            call.unavailable(ERROR_NOT_AVAILABLE);
+            return false;
+        }
+        if (pendingCalls.size() >= MAX_PENDING_CALLS) {
+            call.reject(ERROR_TOO_MANY_PENDING_CALLS);
+            return false;
+        }
+        pendingCalls.add(replay);
+        return false;
+    }
+
+    private void replayPendingCalls() {
+        initialized = true;
+        while (!pendingCalls.isEmpty()) {
+            pendingCalls.poll().run();
+        }
     }
 
     @PluginMethod
     public void speak(PluginCall call) {
-        boolean isAvailable = implementation.isAvailable();
-        if (!isAvailable) {
-            call.unavailable("Not yet initialized or not available on this device.");
+        if (!whenAvailable(call, () -> speak(call))) {
             return;
         }
 
@@ -41,11 +148,23 @@ public class TextToSpeechPlugin extends Plugin {
         int audioChannel = call.getInt("audioChannel", 0); // 新增参数，默认为0（双声道）
         int queueStrategy = call.getInt("queueStrategy", 0);
         boolean forceSpeaker = call.getBoolean("forceSpeaker", false);
+        boolean streaming = call.getBoolean("streaming", false);
+        boolean memory = call.getBoolean("memory", false);
+        boolean chunking = call.getBoolean("chunking", false);
+        int lookahead = call.getInt("lookahead", 1);
+        int priority = call.getInt("priority", 1);
+        boolean preempt = call.getBoolean("preempt", false);
+        boolean resumable = call.getBoolean("resumable", false);
+        long ttl = call.getLong("ttl", 0L);
+        String handle = call.getString("handle");
 
-        boolean isLanguageSupported = implementation.isLanguageSupported(lang);
-        if (!isLanguageSupported) {
-            call.reject(ERROR_UNSUPPORTED_LANGUAGE);
-            return;
+        // 预加载的语句已合成完毕，无需再检查语言
+        if (handle == null) {
+            boolean isLanguageSupported = implementation.isLanguageSupported(lang);
+            if (!isLanguageSupported) {
+                call.reject(ERROR_UNSUPPORTED_LANGUAGE);
+                return;
+            }
         }
 
         SpeakResultCallback resultCallback = new SpeakResultCallback() {
@@ -59,6 +178,12 @@ public class TextToSpeechPlugin extends Plugin {
                 call.reject(ERROR_UTTERANCE);
             }
 
+            @Override
+            public void onDropped(String reason) {
+                // reason 作为错误码，应用可以据此区分过载和失败
+                call.reject(getDropMessage(reason), reason);
+            }
+
             @Override
             public void onRangeStart(int start, int end) {
                 JSObject ret = new JSObject();
@@ -71,7 +196,555 @@ public class TextToSpeechPlugin extends Plugin {
         };
 
         try {
-            implementation.speak(text, lang, rate, pitch, volume, voice, audioChannel, call.getCallbackId(), resultCallback, queueStrategy, forceSpeaker);
+            implementation.speak(
+                text,
+                lang,
+                rate,
+                pitch,
+                volume,
+                voice,
+                audioChannel,
+                call.getCallbackId(),
+                resultCallback,
+                queueStrategy,
+                forceSpeaker,
+                streaming,
+                memory,
+                chunking,
+                lookahead,
+                priority,
+                preempt,
+                resumable,
+                ttl,
+                handle
+            );
+        } catch (Exception ex) {
+            call.reject(ex.getLocalizedMessage());
+        }
+    }
+
+    @PluginMethod
+    public void speakBatch(PluginCall call) {
+        if (!whenAvailable(call, () -> speakBatch(call))) {
+            return;
+        }
+
+        JSArray items = call.getArray("items", new JSArray());
+        int queueStrategy = call.getInt("queueStrategy", 0);
+        String batchId = call.getCallbackId();
+        if (items.length() == 0) {
+            call.reject(ERROR_EMPTY_BATCH);
+            return;
+        }
+
+        try {
+            // 先读取并校验整批，任何一项不合法都不入队
+            AtomicInteger remaining = new AtomicInteger(items.length());
+            List<Runnable> enqueues = new ArrayList<>(items.length());
+            List<SpeakResultCallback> callbacks = new ArrayList<>(items.length());
+            for (int i = 0; i < items.length(); i++) {
+                JSONObject item = items.getJSONObject(i);
+                String text = item.optString("text", "");
+                String lang = item.optString("lang", "en-US");
+                String handle = item.has("handle") ? item.getString("handle") : null;
+                if (handle == null && !implementation.isLanguageSupported(lang)) {
+                    call.reject(ERROR_UNSUPPORTED_LANGUAGE + " (item " + i + ")");
+                    return;
+                }
+                float rate = (float) item.optDouble("rate", 1.0);
+                float pitch = (float) item.optDouble("pitch", 1.0);
+                float volume = (float) item.optDouble("volume", 1.0);
+                int voice = item.optInt("voice", -1);
+                int audioChannel = item.optInt("audioChannel", 0);
+                String utteranceId = batchId + "-" + i;
+                SpeakResultCallback callback = createBatchItemCallback(batchId, i, text, remaining);
+                // 只有第一项按批次的策略入队，其余项排在它后面
+                int itemQueueStrategy = i == 0 ? queueStrategy : 1;
+                boolean forceSpeaker = item.optBoolean("forceSpeaker", false);
+                boolean streaming = item.optBoolean("streaming", false);
+                boolean memory = item.optBoolean("memory", false);
+                boolean chunking = item.optBoolean("chunking", false);
+                int lookahead = item.optInt("lookahead", 1);
+                int priority = item.optInt("priority", 1);
+                boolean preempt = item.optBoolean("preempt", false);
+                boolean resumable = item.optBoolean("resumable", false);
+                long ttl = item.optLong("ttl", 0L);
+                callbacks.add(callback);
+                enqueues.add(() ->
+                    implementation.speak(
+                        text,
+                        lang,
+                        rate,
+                        pitch,
+                        volume,
+                        voice,
+                        audioChannel,
+                        utteranceId,
+                        callback,
+                        itemQueueStrategy,
+                        forceSpeaker,
+                        streaming,
+                        memory,
+                        chunking,
+                        lookahead,
+                        priority,
+                        preempt,
+                        resumable,
+                        ttl,
+                        handle
+                    )
+                );
+            }
+
+            for (int i = 0; i < enqueues.size(); i++) {
+                try {
+                    enqueues.get(i).run();
+                } catch (Exception ex) {
+                    // 前面的项已经入队，不能再整体拒绝；与播放失败一样通过 onBatchProgress 报告
+                    Log.e(LOG_TAG, "Failed to queue batch item " + i + ": " + ex.getMessage());
+                    callbacks.get(i).onError();
+                }
+            }
+
+            JSObject ret = new JSObject();
+            ret.put("batchId", batchId);
+            call.resolve(ret);
+        } catch (Exception ex) {
+            call.reject(ex.getLocalizedMessage());
+        }
+    }
+
+    private SpeakResultCallback createBatchItemCallback(String batchId, int index, String text, AtomicInteger remaining) {
+        return new SpeakResultCallback() {
+            @Override
+            public void onDone() {
+                notifyBatchProgress("done");
+            }
+
+            @Override
+            public void onError() {
+                notifyBatchProgress("error");
+            }
+
+            @Override
+            public void onDropped(String reason) {
+                notifyBatchProgress("dropped", reason);
+            }
+
+            @Override
+            public void onRangeStart(int start, int end) {
+                JSObject ret = new JSObject();
+                ret.put("start", start);
+                ret.put("end", end);
+                ret.put("spokenWord", text.substring(start, end));
+                // 与 onBatchProgress 一样标明所属的批次和项
+                ret.put("batchId", batchId);
+                ret.put("index", index);
+                notifyListeners("onRangeStart", ret);
+            }
+
+            private void notifyBatchProgress(String status) {
+                notifyBatchProgress(status, null);
+            }
+
+            private void notifyBatchProgress(String status, String reason) {
+                JSObject ret = new JSObject();
+                ret.put("batchId", batchId);
+                ret.put("index", index);
+                ret.put("status", status);
+                if (reason != null) {
+                    ret.put("reason", reason);
+                }
+                ret.put("remaining", remaining.decrementAndGet());
+                notifyListeners("onBatchProgress", ret);
+            }
+        };
+    }
+
+    private static String getDropMessage(String reason) {
+        switch (reason) {
+            case TTSRequest.DROP_DISPLACED:
+                return ERROR_DISPLACED;
+            case TTSRequest.DROP_EXPIRED:
+                return ERROR_EXPIRED;
+            default:
+                return ERROR_QUEUE_FULL;
+        }
+    }
+
+    @PluginMethod
+    public void preload(PluginCall call) {
+        if (!whenAvailable(call, () -> preload(call))) {
+            return;
+        }
+
+        JSArray texts = call.getArray("texts", new JSArray());
+        String lang = call.getString("lang", "en-US");
+        float rate = call.getFloat("rate", 1.0f);
+        float pitch = call.getFloat("pitch", 1.0f);
+        int voice = call.getInt("voice", -1);
+
+        boolean isLanguageSupported = implementation.isLanguageSupported(lang);
+        if (!isLanguageSupported) {
+            call.reject(ERROR_UNSUPPORTED_LANGUAGE);
+            return;
+        }
+
+        PreloadResultCallback resultCallback = new PreloadResultCallback() {
+            @Override
+            public void onDone(List<String> handles) {
+                JSObject ret = new JSObject();
+                ret.put("handles", JSArray.from(handles.toArray()));
+                call.resolve(ret);
+            }
+
+            @Override
+            public void onError() {
+                call.reject(ERROR_PRELOAD);
+            }
+        };
+
+        try {
+            List<String> textList = texts.toList();
+            implementation.preload(textList, lang, rate, pitch, voice, resultCallback);
+        } catch (Exception ex) {
+            call.reject(ex.getLocalizedMessage());
+        }
+    }
+
+    @PluginMethod
+    public void render(PluginCall call) {
+        if (!whenAvailable(call, () -> render(call))) {
+            return;
+        }
+
+        String text = call.getString("text", "");
+        String lang = call.getString("lang", "en-US");
+        float rate = call.getFloat("rate", 1.0f);
+        float pitch = call.getFloat("pitch", 1.0f);
+        int voice = call.getInt("voice", -1);
+        String format = call.getString("format", AudioEncoder.FORMAT_WAV);
+        int bitRate = call.getInt("bitRate", AudioEncoder.DEFAULT_BIT_RATE);
+        int chunkSize = call.getInt("chunkSize", 0);
+        String id = call.getString("id", UUID.randomUUID().toString());
+
+        boolean isLanguageSupported = implementation.isLanguageSupported(lang);
+        if (!isLanguageSupported) {
+            call.reject(ERROR_UNSUPPORTED_LANGUAGE);
+            return;
+        }
+        if (!AudioEncoder.isSupported(format)) {
+            call.reject(ERROR_UNSUPPORTED_FORMAT);
+            return;
+        }
+
+        RenderResultCallback resultCallback = new RenderResultCallback() {
+            @Override
+            public void onDone(File file, int sampleRate, int channelCount, long durationMs) {
+                try {
+                    if (chunkSize > 0) {
+                        emitRenderChunks(id, file, chunkSize);
+                    }
+                } catch (IOException ex) {
+                    call.reject(ex.getLocalizedMessage());
+                    return;
+                }
+                JSObject ret = new JSObject();
+                ret.put("id", id);
+                ret.put("uri", Uri.fromFile(file).toString());
+                ret.put("format", format);
+                ret.put("bytes", file.length());
+                ret.put("sampleRate", sampleRate);
+                ret.put("channelCount", channelCount);
+                ret.put("durationMs", durationMs);
+                call.resolve(ret);
+            }
+
+            @Override
+            public void onError() {
+                call.reject(ERROR_RENDER);
+            }
+        };
+
+        try {
+            implementation.render(text, lang, rate, pitch, voice, format, bitRate, resultCallback);
+        } catch (Exception ex) {
+            call.reject(ex.getLocalizedMessage());
+        }
+    }
+
+    /**
+     * Sends a rendered file as base64 chunks, so large outputs never cross the bridge in a single message.
+     */
+    private void emitRenderChunks(String id, File file, int chunkSize) throws IOException {
+        try (DataInputStream input = new DataInputStream(new FileInputStream(file))) {
+            byte[] buffer = new byte[chunkSize];
+            long remaining = file.length();
+            int index = 0;
+            do {
+                int length = (int) Math.min(buffer.length, remaining);
+                input.readFully(buffer, 0, length);
+                remaining -= length;
+                JSObject ret = new JSObject();
+                ret.put("id", id);
+                ret.put("index", index++);
+                ret.put("data", Base64.encodeToString(buffer, 0, length, Base64.NO_WRAP));
+                ret.put("last", remaining == 0);
+                notifyListeners("onRenderChunk", ret);
+            } while (remaining > 0);
+        }
+    }
+
+    @PluginMethod
+    public void prerender(PluginCall call) {
+        if (!whenAvailable(call, () -> prerender(call))) {
+            return;
+        }
+
+        String jobId = call.getString("jobId", UUID.randomUUID().toString());
+        JSArray texts = call.getArray("texts", null);
+        String lang = call.getString("lang", "en-US");
+        float rate = call.getFloat("rate", 1.0f);
+        float pitch = call.getFloat("pitch", 1.0f);
+        int voice = call.getInt("voice", -1);
+        int concurrency = call.getInt("concurrency", 2);
+
+        // 恢复任务时使用保存的语言
+        if (texts != null && !implementation.isLanguageSupported(lang)) {
+            call.reject(ERROR_UNSUPPORTED_LANGUAGE);
+            return;
+        }
+
+        PrerenderListener listener = new PrerenderListener() {
+            @Override
+            public void onProgress(String jobId, int completed, int failed, int total, boolean done) {
+                JSObject ret = new JSObject();
+                ret.put("jobId", jobId);
+                ret.put("completed", completed);
+                ret.put("failed", failed);
+                ret.put("total", total);
+                ret.put("done", done);
+                notifyListeners("onPrerenderProgress", ret);
+            }
+        };
+
+        try {
+            List<String> textList = texts != null ? texts.toList() : null;
+            PrerenderJob job = implementation.prerender(jobId, textList, lang, rate, pitch, voice, concurrency, listener);
+            JSObject ret = new JSObject();
+            ret.put("jobId", jobId);
+            ret.put("total", job.getTotal());
+            call.resolve(ret);
+        } catch (Exception ex) {
+            call.reject(ex.getLocalizedMessage());
+        }
+    }
+
+    @PluginMethod
+    public void cancelPrerender(PluginCall call) {
+        String jobId = call.getString("jobId", "");
+        try {
+            implementation.cancelPrerender(jobId);
+            call.resolve();
+        } catch (Exception ex) {
+            call.reject(ex.getLocalizedMessage());
+        }
+    }
+
+    @PluginMethod
+    public void getPrerenderJobs(PluginCall call) {
+        try {
+            JSObject ret = new JSObject();
+            ret.put("jobs", implementation.getPrerenderJobs());
+            call.resolve(ret);
+        } catch (Exception ex) {
+            call.reject(ex.getLocalizedMessage());
+        }
+    }
+
+    @PluginMethod
+    public void loadPromptPack(PluginCall call) {
+        String path = call.getString("path", "");
+        try {
+            int entries = implementation.loadPromptPack(toFile(path));
+            JSObject ret = new JSObject();
+            ret.put("entries", entries);
+            call.resolve(ret);
+        } catch (Exception ex) {
+            call.reject(ex.getLocalizedMessage());
+        }
+    }
+
+    @PluginMethod
+    public void buildPromptPack(PluginCall call) {
+        String path = call.getString("path", null);
+        try {
+            File file = path != null ? toFile(path) : new File(getContext().getFilesDir(), "tts-prompts.pack");
+            List<String> rejected = new ArrayList<>();
+            int entries = implementation.buildPromptPack(file, rejected);
+            JSObject ret = new JSObject();
+            ret.put("uri", Uri.fromFile(file).toString());
+            ret.put("entries", entries);
+            ret.put("bytes", file.length());
+            ret.put("rejected", JSArray.from(rejected.toArray()));
+            call.resolve(ret);
+        } catch (Exception ex) {
+            call.reject(ex.getLocalizedMessage());
+        }
+    }
+
+    @PluginMethod
+    public void unloadPromptPacks(PluginCall call) {
+        try {
+            implementation.unloadPromptPacks();
+            call.resolve();
+        } catch (Exception ex) {
+            call.reject(ex.getLocalizedMessage());
+        }
+    }
+
+    /**
+     * @param path An absolute path or a {@code file://} URI, e.g. as returned by {@code render()}.
+     */
+    private static File toFile(String path) {
+        return path.startsWith("file://") ? new File(Uri.parse(path).getPath()) : new File(path);
+    }
+
+    @PluginMethod
+    public void configureCache(PluginCall call) {
+        boolean enabled = call.getBoolean("enabled", true);
+        long maxBytes = call.getLong("maxBytes", AudioCache.DEFAULT_MAX_BYTES);
+        try {
+            implementation.configureCache(enabled, maxBytes);
+            call.resolve();
+        } catch (Exception ex) {
+            call.reject(ex.getLocalizedMessage());
+        }
+    }
+
+    @PluginMethod
+    public void configureAudioSession(PluginCall call) {
+        long focusLingerMs = call.getLong("focusLingerMs", PlaybackScheduler.DEFAULT_FOCUS_LINGER_MS);
+        try {
+            implementation.configureAudioSession(focusLingerMs);
+            call.resolve();
+        } catch (Exception ex) {
+            call.reject(ex.getLocalizedMessage());
+        }
+    }
+
+    @PluginMethod
+    public void configureAudioProcessing(PluginCall call) {
+        int fadeMs = call.getInt("fadeMs", StreamingAudioPlayer.DEFAULT_FADE_MS);
+        boolean normalizeLoudness = call.getBoolean("normalizeLoudness", false);
+        float targetLevelDb = call.getFloat("targetLevelDb", StreamingAudioPlayer.DEFAULT_TARGET_LEVEL_DB);
+        boolean trimSilence = call.getBoolean("trimSilence", false);
+        float silenceThresholdDb = call.getFloat("silenceThresholdDb", StreamingAudioPlayer.DEFAULT_SILENCE_THRESHOLD_DB);
+        try {
+            implementation.configureAudioProcessing(fadeMs, normalizeLoudness, targetLevelDb, trimSilence, silenceThresholdDb);
+            call.resolve();
+        } catch (Exception ex) {
+            call.reject(ex.getLocalizedMessage());
+        }
+    }
+
+    @PluginMethod
+    public void getCacheStats(PluginCall call) {
+        try {
+            JSObject ret = implementation.getCacheStats();
+            call.resolve(ret);
+        } catch (Exception ex) {
+            call.reject(ex.getLocalizedMessage());
+        }
+    }
+
+    @PluginMethod
+    public void getPlaybackStats(PluginCall call) {
+        try {
+            JSObject ret = implementation.getPlaybackStats();
+            call.resolve(ret);
+        } catch (Exception ex) {
+            call.reject(ex.getLocalizedMessage());
+        }
+    }
+
+    @PluginMethod
+    public void configureQueue(PluginCall call) {
+        int[] maxDepth = new int[] {
+            call.getInt("lowMaxDepth", 0),
+            call.getInt("normalMaxDepth", 0),
+            call.getInt("highMaxDepth", 0)
+        };
+        int maxPending = call.getInt("maxPending", 0);
+        long maxPendingBytes = call.getLong("maxPendingBytes", 0L);
+        int maxQueued = call.getInt("maxQueued", 0);
+        long maxQueuedBytes = call.getLong("maxQueuedBytes", 0L);
+        int overloadPolicy = call.getInt("overloadPolicy", LaneQueue.POLICY_DROP_OLDEST);
+        long coalesceWindowMs = call.getLong("coalesceWindowMs", 0L);
+        try {
+            implementation.configureQueue(
+                maxDepth,
+                maxPending,
+                maxPendingBytes,
+                maxQueued,
+                maxQueuedBytes,
+                overloadPolicy,
+                coalesceWindowMs
+            );
+            call.resolve();
+        } catch (Exception ex) {
+            call.reject(ex.getLocalizedMessage());
+        }
+    }
+
+    @PluginMethod
+    public void configureEngines(PluginCall call) {
+        if (!whenAvailable(call, () -> configureEngines(call))) {
+            return;
+        }
+        int poolSize = call.getInt("poolSize", 1);
+        try {
+            implementation.configureEngines(poolSize);
+            call.resolve();
+        } catch (Exception ex) {
+            call.reject(ex.getLocalizedMessage());
+        }
+    }
+
+    @PluginMethod
+    public void getMetrics(PluginCall call) {
+        boolean reset = call.getBoolean("reset", false);
+        try {
+            JSObject ret = implementation.getMetrics(reset);
+            call.resolve(ret);
+        } catch (Exception ex) {
+            call.reject(ex.getLocalizedMessage());
+        }
+    }
+
+    @PluginMethod
+    public void configureMetrics(PluginCall call) {
+        long intervalMs = call.getLong("intervalMs", 0L);
+        try {
+            // 在定时器所在的线程中修改，避免与正在执行的 emitMetrics 交错
+            metricsHandler.post(() -> {
+                metricsHandler.removeCallbacks(emitMetrics);
+                metricsIntervalMs = Math.max(0, intervalMs);
+                if (metricsIntervalMs > 0) {
+                    metricsHandler.postDelayed(emitMetrics, metricsIntervalMs);
+                }
+            });
+            call.resolve();
+        } catch (Exception ex) {
+            call.reject(ex.getLocalizedMessage());
+        }
+    }
+
+    @PluginMethod
+    public void getEngineStats(PluginCall call) {
+        try {
+            JSObject ret = implementation.getEngineStats();
+            call.resolve(ret);
         } catch (Exception ex) {
             call.reject(ex.getLocalizedMessage());
         }
@@ -79,9 +752,7 @@ public class TextToSpeechPlugin extends Plugin {
 
     @PluginMethod
     public void stop(PluginCall call) {
-        boolean isAvailable = implementation.isAvailable();
-        if (!isAvailable) {
-            call.unavailable("Not yet initialized or not available on this device.");
+        if (!whenAvailable(call, () -> stop(call))) {
             return;
         }
         try {
@@ -94,6 +765,9 @@ public class TextToSpeechPlugin extends Plugin {
 
     @PluginMethod
     public void getSupportedLanguages(PluginCall call) {
+        if (!whenAvailable(call, () -> getSupportedLanguages(call))) {
+            return;
+        }
         try {
             JSArray languages = implementation.getSupportedLanguages();
             JSObject ret = new JSObject();
@@ -106,8 +780,12 @@ public class TextToSpeechPlugin extends Plugin {
 
     @PluginMethod
     public void getSupportedVoices(PluginCall call) {
+        if (!whenAvailable(call, () -> getSupportedVoices(call))) {
+            return;
+        }
+        String lang = call.getString("lang");
         try {
-            JSArray voices = implementation.getSupportedVoices();
+            JSArray voices = implementation.getSupportedVoices(lang);
             JSObject ret = new JSObject();
             ret.put("voices", voices);
             call.resolve(ret);
@@ -118,6 +796,9 @@ public class TextToSpeechPlugin extends Plugin {
 
     @PluginMethod
     public void isLanguageSupported(PluginCall call) {
+        if (!whenAvailable(call, () -> isLanguageSupported(call))) {
+            return;
+        }
         String lang = call.getString("lang", "");
         try {
             boolean isLanguageSupported = implementation.isLanguageSupported(lang);
@@ -165,6 +846,7 @@ public class TextToSpeechPlugin extends Plugin {
 
     @Override
     protected void handleOnDestroy() {
+        metricsHandler.removeCallbacks(emitMetrics);
         implementation.onDestroy();
     }
 }
@@ -0,0 +1,100 @@
+package com.getcapacitor.community.tts;
+
+import java.util.List;
+
+/**
+ * Routes the callbacks of the {@code UtteranceProgressListener} shared by all engine instances to the owner of the
+ * utterance id. Background items (preloads, renders, prerenders) are looked up first, then speak() requests.
+ * Done, error and stop claim the owner, so each utterance is finished exactly once even if they race on binder threads.
+ */
+class UtteranceDispatcher {
+
+    /**
+     * An utterance synthesized in the background that only needs its result.
+     */
+    interface Item {
+        void onDone();
+        void onError();
+    }
+
+    /**
+     * Receives the callbacks of speak() requests.
+     */
+    interface RequestHandler {
+        void onBeginSynthesis(TTSRequest request, int sampleRateInHz, int audioFormat, int channelCount);
+        void onAudioAvailable(TTSRequest request, byte[] audio);
+        void onRangeStart(TTSRequest request, int start, int end);
+        void onDone(TTSRequest request);
+        void onError(TTSRequest request);
+    }
+
+    private final UtteranceRegistry<TTSRequest> requests;
+    private final List<UtteranceRegistry<? extends Item>> items;
+    private final RequestHandler handler;
+
+    UtteranceDispatcher(UtteranceRegistry<TTSRequest> requests, List<UtteranceRegistry<? extends Item>> items, RequestHandler handler) {
+        this.requests = requests;
+        this.items = items;
+        this.handler = handler;
+    }
+
+    void onBeginSynthesis(String utteranceId, int sampleRateInHz, int audioFormat, int channelCount) {
+        TTSRequest request = requests.peek(utteranceId);
+        if (request != null) {
+            handler.onBeginSynthesis(request, sampleRateInHz, audioFormat, channelCount);
+        }
+    }
+
+    void onAudioAvailable(String utteranceId, byte[] audio) {
+        TTSRequest request = requests.peek(utteranceId);
+        if (request != null) {
+            handler.onAudioAvailable(request, audio);
+        }
+    }
+
+    void onRangeStart(String utteranceId, int start, int end) {
+        TTSRequest request = requests.peek(utteranceId);
+        if (request != null) {
+            handler.onRangeStart(request, start, end);
+        }
+    }
+
+    void onDone(String utteranceId) {
+        Item item = claimItem(utteranceId);
+        if (item != null) {
+            item.onDone();
+            return;
+        }
+        TTSRequest request = requests.claim(utteranceId);
+        if (request != null) {
+            handler.onDone(request);
+        }
+    }
+
+    void onError(String utteranceId) {
+        Item item = claimItem(utteranceId);
+        if (item != null) {
+            item.onError();
+            return;
+        }
+        TTSRequest request = requests.claim(utteranceId);
+        if (request != null) {
+            handler.onError(request);
+        }
+    }
+
+    void onStop(String utteranceId) {
+        // 未经 stop() 认领就被引擎中止的请求按失败处理
+        onError(utteranceId);
+    }
+
+    private Item claimItem(String utteranceId) {
+        for (UtteranceRegistry<? extends Item> registry : items) {
+            Item item = registry.claim(utteranceId);
+            if (item != null) {
+                return item;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,91 @@
+package com.getcapacitor.community.tts;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+import java.io.File;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Owns the temporary audio files of queued utterances. Files live in a dedicated directory and are tracked
+ * from creation until release, so cleanup never has to scan for them. Deletions run on a background thread.
+ */
+class UtteranceFiles {
+
+    private static final String LOG_TAG = "UtteranceFiles";
+
+    private final File directory;
+    private final Set<File> liveFiles = new HashSet<>();
+    private final HandlerThread thread;
+    private final Handler handler;
+
+    UtteranceFiles(File directory) {
+        this.directory = directory;
+        this.thread = new HandlerThread(LOG_TAG, Process.THREAD_PRIORITY_BACKGROUND);
+        this.thread.start();
+        this.handler = new Handler(thread.getLooper());
+    }
+
+    /**
+     * @return A new tracked file for the given utterance. The directory is created on demand.
+     */
+    File create(String utteranceId) {
+        if (!directory.exists()) {
+            directory.mkdirs();
+        }
+        return track(new File(directory, utteranceId + ".wav"));
+    }
+
+    /**
+     * Tracks a file that lives outside the utterance directory, e.g. a temporary preload file.
+     */
+    synchronized File track(File file) {
+        liveFiles.add(file);
+        return file;
+    }
+
+    /**
+     * Stops tracking a file that has been moved elsewhere, e.g. into the audio cache.
+     */
+    synchronized void forget(File file) {
+        liveFiles.remove(file);
+    }
+
+    /**
+     * Stops tracking a file and deletes it in the background.
+     */
+    void release(File file) {
+        forget(file);
+        handler.post(file::delete);
+    }
+
+    /**
+     * Deletes files left behind by a previous process, e.g. after a crash. Tracked files are kept.
+     *
+     * @param suffix Only delete files with this suffix, or {@code null} for all files.
+     */
+    void sweep(File directory, String suffix) {
+        handler.post(() -> {
+            File[] files = directory.listFiles((dir, name) -> suffix == null || name.endsWith(suffix));
+            if (files == null) {
+                return;
+            }
+            for (File file : files) {
+                synchronized (this) {
+                    if (!liveFiles.contains(file)) {
+                        file.delete();
+                    }
+                }
+            }
+        });
+    }
+
+    File getDirectory() {
+        return directory;
+    }
+
+    void release() {
+        thread.quitSafely();
+    }
+}
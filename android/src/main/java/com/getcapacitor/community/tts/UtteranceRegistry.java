@@ -0,0 +1,56 @@
+package com.getcapacitor.community.tts;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps engine utterance ids to the requests that are waiting for them.
+ * Engine callbacks arrive on binder threads in any order; {@link #claim(String)} guarantees that
+ * exactly one of the terminal callbacks (done, error, stop) gets hold of a request.
+ */
+public class UtteranceRegistry<T> {
+
+    private final ConcurrentHashMap<String, T> entries = new ConcurrentHashMap<>();
+
+    /**
+     * @throws IllegalStateException If the id is already registered.
+     */
+    public void register(String utteranceId, T entry) {
+        if (entries.putIfAbsent(utteranceId, entry) != null) {
+            throw new IllegalStateException("Duplicate utterance id: " + utteranceId);
+        }
+    }
+
+    /**
+     * Looks up an entry without claiming it, for progress callbacks.
+     */
+    public T peek(String utteranceId) {
+        return entries.get(utteranceId);
+    }
+
+    /**
+     * Removes and returns an entry. Only the first caller for a given id receives it.
+     */
+    public T claim(String utteranceId) {
+        return entries.remove(utteranceId);
+    }
+
+    /**
+     * Claims every entry that is still registered.
+     */
+    public List<T> claimAll() {
+        List<T> claimed = new ArrayList<>();
+        for (String utteranceId : entries.keySet()) {
+            T entry = entries.remove(utteranceId);
+            if (entry != null) {
+                claimed.add(entry);
+            }
+        }
+        return claimed;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,83 @@
+package com.getcapacitor.community.tts;
+
+import android.speech.tts.Voice;
+import com.getcapacitor.JSArray;
+import com.getcapacitor.JSObject;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable snapshot of the engine's voices, indexed by position, by {@code voiceURI} and by language.
+ * Positions follow the order returned by {@code getSupportedVoices}, which is sorted by name.
+ */
+class VoiceTable {
+
+    static final VoiceTable EMPTY = new VoiceTable(Collections.emptySet());
+
+    private final List<Voice> voices;
+    private final List<JSObject> voiceObjects;
+    private final Map<String, Voice> byUri = new HashMap<>();
+    private final Map<String, List<JSObject>> byLang = new HashMap<>();
+
+    VoiceTable(Set<Voice> engineVoices) {
+        voices = new ArrayList<>(engineVoices);
+        //voice.getName() is guaranteed to be unique, so will be used for sorting.
+        Collections.sort(voices, (v1, v2) -> v1.getName().compareTo(v2.getName()));
+
+        voiceObjects = new ArrayList<>(voices.size());
+        for (Voice voice : voices) {
+            JSObject obj = toJSObject(voice);
+            voiceObjects.add(obj);
+            byUri.put(voice.getName(), voice);
+            String lang = voice.getLocale().toLanguageTag();
+            List<JSObject> sameLang = byLang.get(lang);
+            if (sameLang == null) {
+                sameLang = new ArrayList<>();
+                byLang.put(lang, sameLang);
+            }
+            sameLang.add(obj);
+        }
+    }
+
+    /**
+     * @return The voice at the given position, or {@code null} for a negative or out of range index.
+     */
+    Voice get(int index) {
+        return index >= 0 && index < voices.size() ? voices.get(index) : null;
+    }
+
+    Voice get(String voiceURI) {
+        return voiceURI != null ? byUri.get(voiceURI) : null;
+    }
+
+    List<Voice> getVoices() {
+        return Collections.unmodifiableList(voices);
+    }
+
+    /**
+     * @param lang BCP 47 language tag, or {@code null} for all voices.
+     */
+    JSArray toJSArray(String lang) {
+        List<JSObject> result = lang == null ? voiceObjects : byLang.get(Locale.forLanguageTag(lang).toLanguageTag());
+        if (result == null) {
+            return new JSArray();
+        }
+        return JSArray.from(result.toArray());
+    }
+
+    private static JSObject toJSObject(Voice voice) {
+        Locale locale = voice.getLocale();
+        JSObject obj = new JSObject();
+        obj.put("voiceURI", voice.getName());
+        obj.put("name", locale.getDisplayLanguage() + " " + locale.getDisplayCountry());
+        obj.put("lang", locale.toLanguageTag());
+        obj.put("localService", !voice.isNetworkConnectionRequired());
+        obj.put("default", false);
+        return obj;
+    }
+}
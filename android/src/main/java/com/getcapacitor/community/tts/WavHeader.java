@@ -0,0 +1,93 @@
+package com.getcapacitor.community.tts;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * The format and the location of the sample data of a PCM WAV file, as written by {@code synthesizeToFile}.
+ */
+class WavHeader {
+
+    // 引擎写出的头通常为 44 字节，留出余量跳过 LIST 等附加块
+    static final int MAX_HEADER_BYTES = 4096;
+    private static final int FORMAT_PCM = 1;
+
+    final int sampleRate;
+    final int channelCount;
+    final int bitsPerSample;
+    final long dataOffset;
+    final long dataLength;
+
+    WavHeader(int sampleRate, int channelCount, int bitsPerSample, long dataOffset, long dataLength) {
+        this.sampleRate = sampleRate;
+        this.channelCount = channelCount;
+        this.bitsPerSample = bitsPerSample;
+        this.dataOffset = dataOffset;
+        this.dataLength = dataLength;
+    }
+
+    static WavHeader read(File file) throws IOException {
+        try (RandomAccessFile input = new RandomAccessFile(file, "r")) {
+            byte[] header = new byte[(int) Math.min(MAX_HEADER_BYTES, input.length())];
+            input.readFully(header);
+            return parse(ByteBuffer.wrap(header), input.length());
+        }
+    }
+
+    /**
+     * @param header The beginning of the file.
+     * @param fileLength Total length of the file, used when the header does not state the length of the data.
+     */
+    static WavHeader parse(ByteBuffer header, long fileLength) throws IOException {
+        header.order(ByteOrder.LITTLE_ENDIAN);
+        if (header.remaining() < 12 || header.getInt(0) != fourCC("RIFF") || header.getInt(8) != fourCC("WAVE")) {
+            throw new IOException("Not a WAV file");
+        }
+        int sampleRate = 0;
+        int channelCount = 0;
+        int bitsPerSample = 0;
+        int position = 12;
+        while (position + 8 <= header.limit()) {
+            int id = header.getInt(position);
+            long size = header.getInt(position + 4) & 0xFFFFFFFFL;
+            if (id == fourCC("fmt ")) {
+                if (position + 24 > header.limit() || header.getShort(position + 8) != FORMAT_PCM) {
+                    throw new IOException("Not a PCM WAV file");
+                }
+                channelCount = header.getShort(position + 10);
+                sampleRate = header.getInt(position + 12);
+                bitsPerSample = header.getShort(position + 22);
+            } else if (id == fourCC("data")) {
+                if (sampleRate <= 0 || channelCount <= 0 || bitsPerSample <= 0) {
+                    throw new IOException("Missing format chunk");
+                }
+                long dataOffset = position + 8;
+                // 边写边输出的引擎可能把长度留为 0 或 0xFFFFFFFF，此时以文件长度为准
+                long dataLength = size == 0 || dataOffset + size > fileLength ? fileLength - dataOffset : size;
+                return new WavHeader(sampleRate, channelCount, bitsPerSample, dataOffset, dataLength);
+            }
+            // 块按偶数字节对齐
+            long next = position + 8 + size + (size & 1);
+            if (next > header.limit()) {
+                break;
+            }
+            position = (int) next;
+        }
+        throw new IOException("Missing data chunk");
+    }
+
+    int getFrameSize() {
+        return channelCount * bitsPerSample / 8;
+    }
+
+    long getDurationMs() {
+        return dataLength / getFrameSize() * 1000 / sampleRate;
+    }
+
+    private static int fourCC(String id) {
+        return id.charAt(0) | id.charAt(1) << 8 | id.charAt(2) << 16 | id.charAt(3) << 24;
+    }
+}
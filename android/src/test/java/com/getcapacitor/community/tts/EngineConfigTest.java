@@ -0,0 +1,124 @@
+package com.getcapacitor.community.tts;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class EngineConfigTest {
+
+    private static final int UTTERANCES = 10000;
+
+    /**
+     * Counts the calls that would cross the binder to the engine.
+     */
+    private static class CountingTarget implements EngineConfig.Target {
+
+        int languageCalls = 0;
+        int voiceCalls = 0;
+        int rateCalls = 0;
+        int pitchCalls = 0;
+        int result = 0;
+
+        @Override
+        public int setLanguage(String lang) {
+            languageCalls++;
+            return result;
+        }
+
+        @Override
+        public int setVoice(String voiceURI) {
+            voiceCalls++;
+            return result;
+        }
+
+        @Override
+        public int setSpeechRate(float rate) {
+            rateCalls++;
+            return result;
+        }
+
+        @Override
+        public int setPitch(float pitch) {
+            pitchCalls++;
+            return result;
+        }
+
+        int total() {
+            return languageCalls + voiceCalls + rateCalls + pitchCalls;
+        }
+    }
+
+    @Test
+    public void steadyState_sendsParametersOnlyOnce() {
+        CountingTarget target = new CountingTarget();
+        EngineConfig config = new EngineConfig(target);
+        for (int i = 0; i < 100; i++) {
+            config.apply("en-US", null, 1.0f, 1.0f);
+        }
+        assertEquals(3, target.total());
+    }
+
+    @Test
+    public void changedParameter_isTheOnlyOneSent() {
+        CountingTarget target = new CountingTarget();
+        EngineConfig config = new EngineConfig(target);
+        config.apply("en-US", null, 1.0f, 1.0f);
+        config.apply("en-US", null, 1.5f, 1.0f);
+        assertEquals(1, target.languageCalls);
+        assertEquals(2, target.rateCalls);
+        assertEquals(1, target.pitchCalls);
+    }
+
+    @Test
+    public void voiceReplacesLanguage_andLanguageIsReappliedAfterwards() {
+        CountingTarget target = new CountingTarget();
+        EngineConfig config = new EngineConfig(target);
+        config.apply("en-US", null, 1.0f, 1.0f);
+        config.apply("en-US", "en-us-x-voice", 1.0f, 1.0f);
+        config.apply("en-US", "en-us-x-voice", 1.0f, 1.0f);
+        config.apply("en-US", null, 1.0f, 1.0f);
+        assertEquals(1, target.voiceCalls);
+        assertEquals(2, target.languageCalls);
+    }
+
+    @Test
+    public void failedCall_isRetried() {
+        CountingTarget target = new CountingTarget();
+        EngineConfig config = new EngineConfig(target);
+        target.result = -1;
+        config.apply("xx-XX", null, 1.0f, 1.0f);
+        target.result = 0;
+        config.apply("xx-XX", null, 1.0f, 1.0f);
+        config.apply("xx-XX", null, 1.0f, 1.0f);
+        assertEquals(2, target.languageCalls);
+        assertEquals(2, target.rateCalls);
+    }
+
+    @Test
+    public void invalidate_resendsEverything() {
+        CountingTarget target = new CountingTarget();
+        EngineConfig config = new EngineConfig(target);
+        config.apply("en-US", null, 1.0f, 1.0f);
+        config.invalidate();
+        config.apply("en-US", null, 1.0f, 1.0f);
+        assertEquals(6, target.total());
+    }
+
+    /**
+     * Announcement-style workload: long runs of utterances with the same settings and an occasional switch of
+     * language or rate. Reconfiguring the engine for every utterance would take three calls each.
+     */
+    @Test
+    public void announcementWorkload_skipsRedundantBinderCalls() {
+        CountingTarget target = new CountingTarget();
+        EngineConfig config = new EngineConfig(target);
+        String[] languages = { "en-US", "de-DE", "zh-CN" };
+        for (int i = 0; i < UTTERANCES; i++) {
+            String lang = languages[(i / 50) % languages.length];
+            float rate = (i / 200) % 2 == 0 ? 1.0f : 1.25f;
+            config.apply(lang, null, rate, 1.0f);
+        }
+
+        assertTrue(target.total() < UTTERANCES / 10);
+    }
+}
@@ -0,0 +1,190 @@
+package com.getcapacitor.community.tts;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import org.junit.Test;
+
+public class LaneQueueTest {
+
+    @Test
+    public void poll_servesHigherLanesFirstAndEachLaneInOrder() {
+        LaneQueue<String> queue = new LaneQueue<>();
+        queue.add("low-1", TTSRequest.PRIORITY_LOW, 0);
+        queue.add("normal-1", TTSRequest.PRIORITY_NORMAL, 0);
+        queue.add("low-2", TTSRequest.PRIORITY_LOW, 0);
+        queue.add("high-1", TTSRequest.PRIORITY_HIGH, 0);
+        queue.add("normal-2", TTSRequest.PRIORITY_NORMAL, 0);
+
+        assertEquals(5, queue.size());
+        assertEquals("high-1", queue.peek());
+        assertEquals(Arrays.asList("high-1", "normal-1", "normal-2", "low-1", "low-2"), drain(queue));
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void add_dropsOldestItemOfFullLaneOnly() {
+        LaneQueue<String> queue = new LaneQueue<>();
+        queue.setMaxDepth(TTSRequest.PRIORITY_LOW, 2);
+        queue.add("normal", TTSRequest.PRIORITY_NORMAL, 0);
+        assertEquals(Collections.emptyList(), queue.add("low-1", TTSRequest.PRIORITY_LOW, 0));
+        assertEquals(Collections.emptyList(), queue.add("low-2", TTSRequest.PRIORITY_LOW, 0));
+        assertEquals(Collections.singletonList("low-1"), queue.add("low-3", TTSRequest.PRIORITY_LOW, 0));
+
+        assertEquals(2, queue.size(TTSRequest.PRIORITY_LOW));
+        assertEquals(Arrays.asList("normal", "low-2", "low-3"), drain(queue));
+    }
+
+    @Test
+    public void setMaxDepth_trimsLaneThatIsAlreadyDeeper() {
+        LaneQueue<String> queue = new LaneQueue<>();
+        for (int i = 0; i < 5; i++) {
+            queue.add("high-" + i, TTSRequest.PRIORITY_HIGH, 0);
+        }
+
+        assertEquals(Arrays.asList("high-0", "high-1", "high-2"), queue.setMaxDepth(TTSRequest.PRIORITY_HIGH, 2));
+        assertEquals(2, queue.size());
+        assertEquals("high-3", queue.poll());
+    }
+
+    @Test
+    public void expire_removesOnlyStaleItems() {
+        LaneQueue<String> queue = new LaneQueue<>();
+        queue.add("forever", TTSRequest.PRIORITY_NORMAL, 0);
+        queue.add("stale", TTSRequest.PRIORITY_NORMAL, 1000);
+        queue.add("fresh", TTSRequest.PRIORITY_HIGH, 3000);
+
+        assertEquals(Collections.emptyList(), queue.expire(1000));
+        assertEquals(Collections.singletonList("stale"), queue.expire(2000));
+        assertEquals(Arrays.asList("fresh", "forever"), drain(queue));
+    }
+
+    @Test
+    public void add_clampsUnknownLanes() {
+        LaneQueue<String> queue = new LaneQueue<>();
+        queue.add("below", -5, 0);
+        queue.add("above", 42, 0);
+
+        assertEquals(1, queue.size(TTSRequest.PRIORITY_LOW));
+        assertEquals(1, queue.size(TTSRequest.PRIORITY_HIGH));
+        assertEquals(Arrays.asList("above", "below"), queue.clear());
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    public void add_dropsOldestItemAcrossLanesWhenQueueIsFull() {
+        LaneQueue<String> queue = new LaneQueue<>();
+        queue.setLimits(3, 0, LaneQueue.POLICY_DROP_OLDEST);
+        queue.add("normal-1", TTSRequest.PRIORITY_NORMAL, 0);
+        queue.add("high-1", TTSRequest.PRIORITY_HIGH, 0);
+        queue.add("low-1", TTSRequest.PRIORITY_LOW, 0);
+
+        assertEquals(Collections.singletonList("normal-1"), queue.add("high-2", TTSRequest.PRIORITY_HIGH, 0));
+        assertEquals(Arrays.asList("high-1", "high-2", "low-1"), drain(queue));
+    }
+
+    @Test
+    public void add_dropsLowestPriorityItemWhenQueueIsFull() {
+        LaneQueue<String> queue = new LaneQueue<>();
+        queue.setLimits(3, 0, LaneQueue.POLICY_DROP_LOWEST_PRIORITY);
+        queue.add("low-1", TTSRequest.PRIORITY_LOW, 0);
+        queue.add("normal-1", TTSRequest.PRIORITY_NORMAL, 0);
+        queue.add("low-2", TTSRequest.PRIORITY_LOW, 0);
+
+        assertEquals(Collections.singletonList("low-1"), queue.add("high-1", TTSRequest.PRIORITY_HIGH, 0));
+        assertEquals(Collections.singletonList("low-2"), queue.add("normal-2", TTSRequest.PRIORITY_NORMAL, 0));
+        // 新项自身优先级最低时由它让位
+        assertEquals(Collections.singletonList("low-3"), queue.add("low-3", TTSRequest.PRIORITY_LOW, 0));
+        assertEquals(Arrays.asList("high-1", "normal-1", "normal-2"), drain(queue));
+    }
+
+    @Test
+    public void add_rejectsNewItemAndKeepsQueuedOnes() {
+        LaneQueue<String> queue = new LaneQueue<>();
+        queue.setLimits(0, 100, LaneQueue.POLICY_REJECT_NEW);
+        queue.setMaxDepth(TTSRequest.PRIORITY_LOW, 1);
+        assertEquals(Collections.emptyList(), queue.add("normal-1", TTSRequest.PRIORITY_NORMAL, 0, 60));
+        assertEquals(Collections.emptyList(), queue.add("low-1", TTSRequest.PRIORITY_LOW, 0, 10));
+
+        assertEquals(Collections.singletonList("low-2"), queue.add("low-2", TTSRequest.PRIORITY_LOW, 0, 10));
+        assertEquals(Collections.singletonList("normal-2"), queue.add("normal-2", TTSRequest.PRIORITY_NORMAL, 0, 40));
+        assertEquals(Collections.emptyList(), queue.add("normal-3", TTSRequest.PRIORITY_NORMAL, 0, 30));
+        assertEquals(100, queue.weight());
+        assertEquals(Arrays.asList("normal-1", "normal-3", "low-1"), drain(queue));
+        assertEquals(0, queue.weight());
+    }
+
+    @Test
+    public void accepts_checksWholeGroupAgainstPolicy() {
+        LaneQueue<String> queue = new LaneQueue<>();
+        queue.setLimits(4, 0, LaneQueue.POLICY_REJECT_NEW);
+        queue.add("normal-1", TTSRequest.PRIORITY_NORMAL, 0);
+        queue.add("normal-2", TTSRequest.PRIORITY_NORMAL, 0);
+
+        assertTrue(queue.accepts(TTSRequest.PRIORITY_HIGH, 2, 0));
+        assertFalse(queue.accepts(TTSRequest.PRIORITY_HIGH, 3, 0));
+
+        // 其余策略会挤出已入队的项，只要求这一组本身不超过上限
+        queue.setLimits(4, 0, LaneQueue.POLICY_DROP_OLDEST);
+        assertTrue(queue.accepts(TTSRequest.PRIORITY_HIGH, 4, 0));
+        assertFalse(queue.accepts(TTSRequest.PRIORITY_HIGH, 5, 0));
+    }
+
+    @Test
+    public void setLimits_trimsQueueByWeight() {
+        LaneQueue<String> queue = new LaneQueue<>();
+        queue.add("normal-1", TTSRequest.PRIORITY_NORMAL, 0, 50);
+        queue.add("high-1", TTSRequest.PRIORITY_HIGH, 0, 50);
+        queue.add("normal-2", TTSRequest.PRIORITY_NORMAL, 0, 50);
+
+        assertEquals(Arrays.asList("normal-1", "high-1"), queue.setLimits(0, 60, LaneQueue.POLICY_DROP_OLDEST));
+        assertEquals(50, queue.weight());
+        assertEquals(Collections.singletonList("normal-2"), drain(queue));
+    }
+
+    @Test
+    public void removeIf_updatesSizeAndWeight() {
+        LaneQueue<String> queue = new LaneQueue<>();
+        queue.add("a-1", TTSRequest.PRIORITY_LOW, 0, 10);
+        queue.add("b-1", TTSRequest.PRIORITY_NORMAL, 0, 20);
+        queue.add("a-2", TTSRequest.PRIORITY_HIGH, 0, 30);
+
+        assertEquals(Arrays.asList("a-2", "a-1"), queue.removeIf(item -> item.startsWith("a-")));
+        assertEquals(1, queue.size());
+        assertEquals(20, queue.weight());
+    }
+
+    @Test
+    public void insertByPriority_keepsLanesInOrderAndCanJumpAheadOfLane() {
+        List<TTSRequest> queue = new LinkedList<>();
+        TTSRequest.insertByPriority(queue, request("normal-1", TTSRequest.PRIORITY_NORMAL), false);
+        TTSRequest.insertByPriority(queue, request("low", TTSRequest.PRIORITY_LOW), false);
+        TTSRequest.insertByPriority(queue, request("normal-2", TTSRequest.PRIORITY_NORMAL), false);
+        TTSRequest.insertByPriority(queue, request("high", TTSRequest.PRIORITY_HIGH), false);
+        // 被打断后恢复的请求排在同一优先级的最前面
+        TTSRequest.insertByPriority(queue, request("resumed", TTSRequest.PRIORITY_NORMAL), true);
+
+        StringBuilder order = new StringBuilder();
+        for (TTSRequest request : queue) {
+            order.append(request.utteranceId).append(' ');
+        }
+        assertEquals("high resumed normal-1 normal-2 low ", order.toString());
+    }
+
+    private static TTSRequest request(String id, int priority) {
+        TTSRequest request = new TTSRequest("", id, 0, false, 1.0f, null);
+        request.priority = priority;
+        return request;
+    }
+
+    private static List<String> drain(LaneQueue<String> queue) {
+        List<String> items = new LinkedList<>();
+        for (String item = queue.poll(); item != null; item = queue.poll()) {
+            items.add(item);
+        }
+        return items;
+    }
+}
@@ -0,0 +1,73 @@
+package com.getcapacitor.community.tts;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void buckets_areContiguousAndCoverEveryValue() {
+        for (int index = 0; index < LatencyHistogram.BUCKETS - 1; index++) {
+            long lower = LatencyHistogram.lowerBound(index);
+            long upper = LatencyHistogram.lowerBound(index + 1) - 1;
+            assertTrue("bucket " + index, upper >= lower);
+            assertEquals(index, LatencyHistogram.indexOf(lower));
+            assertEquals(index, LatencyHistogram.indexOf(upper));
+        }
+        assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.indexOf(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void smallValues_areExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int value = 1; value <= 10; value++) {
+            histogram.record(value);
+        }
+
+        assertEquals(10, histogram.getCount());
+        assertEquals(5.5, histogram.getMean(), 1e-9);
+        assertEquals(5, histogram.getPercentile(50));
+        assertEquals(10, histogram.getPercentile(99));
+        assertEquals(10, histogram.getMax());
+    }
+
+    @Test
+    public void percentiles_stayWithinOneSixteenth() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        long[] values = new long[100_000];
+        Random random = new Random(42);
+        for (int i = 0; i < values.length; i++) {
+            // 对数分布，覆盖 1 µs 到约 1 s
+            values[i] = (long) Math.exp(random.nextDouble() * Math.log(1_000_000));
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (double percentile : new double[] { 50, 95, 99 }) {
+            long exact = values[(int) Math.ceil(percentile / 100 * values.length) - 1];
+            long reported = histogram.getPercentile(percentile);
+            assertTrue(percentile + ": " + reported + " < " + exact, reported >= exact);
+            assertTrue(percentile + ": " + reported + " >> " + exact, reported <= exact + exact / 16 + 1);
+        }
+    }
+
+    @Test
+    public void emptyAndReset_reportZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getPercentile(99));
+        assertEquals(0, histogram.getMean(), 0);
+
+        histogram.record(123_456);
+        histogram.record(-5);
+        assertEquals(2, histogram.getCount());
+        assertEquals(0, histogram.getPercentile(1));
+
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getPercentile(50));
+    }
+}
@@ -0,0 +1,150 @@
+package com.getcapacitor.community.tts;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import org.junit.Test;
+
+public class PcmProcessorTest {
+
+    private static final int SAMPLE_RATE = 48000;
+    // 10 ms 的帧
+    private static final int FRAME_SAMPLES = SAMPLE_RATE / 100;
+
+    private static byte[] pcm(short... samples) {
+        byte[] bytes = new byte[samples.length * 2];
+        for (int i = 0; i < samples.length; i++) {
+            bytes[2 * i] = (byte) samples[i];
+            bytes[2 * i + 1] = (byte) (samples[i] >> 8);
+        }
+        return bytes;
+    }
+
+    private static byte[] constant(int frames, int channels, short value) {
+        short[] samples = new short[frames * channels];
+        Arrays.fill(samples, value);
+        return pcm(samples);
+    }
+
+    @Test
+    public void mono_isDuplicatedToBothChannelsWithGain() {
+        PcmProcessor processor = new PcmProcessor();
+        processor.begin(SAMPLE_RATE, 1, 0, 0.5f, 0);
+        int samples = processor.process(pcm((short) 1000, (short) -2000), 0, 4);
+        short[] output = processor.getOutput();
+        assertEquals(4, samples);
+        assertArrayEquals(new short[] { 500, 500, -1000, -1000 }, Arrays.copyOf(output, samples));
+    }
+
+    @Test
+    public void leftOnly_downmixesStereoIntoTheLeftChannel() {
+        PcmProcessor processor = new PcmProcessor();
+        processor.begin(SAMPLE_RATE, 2, 1, 1.0f, 0);
+        int samples = processor.process(pcm((short) 1000, (short) 3000), 0, 4);
+        short[] output = processor.getOutput();
+        assertEquals(2, samples);
+        assertEquals(2000, output[0]);
+        assertEquals(0, output[1]);
+    }
+
+    @Test
+    public void gain_isClippedInsteadOfWrappingAround() {
+        PcmProcessor processor = new PcmProcessor();
+        processor.begin(SAMPLE_RATE, 1, 0, 4.0f, 0);
+        processor.process(pcm((short) 20000, (short) -20000), 0, 4);
+        short[] output = processor.getOutput();
+        assertEquals(Short.MAX_VALUE, output[0]);
+        assertEquals(Short.MIN_VALUE, output[2]);
+    }
+
+    @Test
+    public void fades_rampAtBothEndsAndKeepEveryFrame() {
+        PcmProcessor processor = new PcmProcessor();
+        int fadeFrames = SAMPLE_RATE * 5 / 1000;
+        processor.begin(SAMPLE_RATE, 1, 0, 1.0f, 5);
+        byte[] input = constant(1000, 1, (short) 10000);
+
+        int first = processor.process(input, 0, 400);
+        assertEquals(0, processor.getOutput()[0]);
+        int rest = processor.process(ByteBuffer.wrap(input, 400, input.length - 400));
+        short lastBeforeEnd = processor.getOutput()[rest - 2];
+        assertEquals(10000, lastBeforeEnd);
+        int tail = processor.end();
+        short[] output = processor.getOutput();
+
+        assertEquals(1000 * 2, first + rest + tail);
+        assertEquals(fadeFrames * 2, tail);
+        assertTrue(output[0] < 10000);
+        assertTrue(output[tail - 2] < output[0]);
+    }
+
+    @Test
+    public void trimSilence_dropsLeadingAndTrailingSilenceAcrossChunks() {
+        PcmProcessor processor = new PcmProcessor();
+        processor.begin(SAMPLE_RATE, 1, 0, 1.0f, 0, true, -50);
+        byte[] silence = constant(300, 1, (short) 3);
+        byte[] speech = constant(200, 1, (short) 8000);
+
+        int total = 0;
+        // 开头静音分两块到达
+        total += processor.process(silence, 0, silence.length);
+        total += processor.process(silence, 0, silence.length);
+        total += processor.process(speech, 0, speech.length);
+        // 句中停顿之后还有声音，应原样保留
+        total += processor.process(silence, 0, silence.length);
+        total += processor.process(speech, 0, speech.length);
+        // 结尾静音
+        total += processor.process(silence, 0, silence.length);
+        total += processor.process(silence, 0, silence.length);
+        total += processor.end();
+
+        assertEquals((200 + 300 + 200) * 2, total);
+    }
+
+    @Test
+    public void trimSilence_keepsPausesLongerThanTheHoldLimit() {
+        PcmProcessor processor = new PcmProcessor();
+        processor.begin(SAMPLE_RATE, 1, 0, 1.0f, 0, true, -50);
+        int pauseFrames = SAMPLE_RATE * PcmProcessor.MAX_HELD_SILENCE_MS / 1000 * 2;
+        byte[] speech = constant(100, 1, (short) 8000);
+        byte[] pause = constant(pauseFrames, 1, (short) 0);
+
+        int total = processor.process(speech, 0, speech.length);
+        total += processor.process(pause, 0, pause.length);
+        total += processor.process(speech, 0, speech.length);
+        total += processor.end();
+
+        assertEquals((100 + pauseFrames + 100) * 2, total);
+    }
+
+    @Test
+    public void normalizationGain_isBounded() {
+        assertEquals(1.0f, PcmProcessor.normalizationGain(0, -20), 0.0f);
+        assertEquals(1.0f, PcmProcessor.normalizationGain(0.01, -20), 0.001f);
+        assertEquals(4.0f, PcmProcessor.normalizationGain(1e-8, -20), 0.0f);
+        assertEquals(0.25f, PcmProcessor.normalizationGain(1.0, -20), 0.0f);
+    }
+
+    @Test
+    public void directBuffer_matchesByteArrayAndKeepsInput() {
+        byte[] frame = constant(FRAME_SAMPLES, 1, (short) 1234);
+        ByteBuffer direct = ByteBuffer.allocateDirect(frame.length);
+        direct.put(frame).flip();
+        PcmProcessor arrayProcessor = new PcmProcessor();
+        PcmProcessor directProcessor = new PcmProcessor();
+        arrayProcessor.begin(SAMPLE_RATE, 1, 1, 0.8f, 5);
+        directProcessor.begin(SAMPLE_RATE, 1, 1, 0.8f, 5);
+
+        int arraySamples = arrayProcessor.process(frame, 0, frame.length);
+        int directSamples = directProcessor.process(direct);
+
+        assertEquals(arraySamples, directSamples);
+        assertArrayEquals(
+            Arrays.copyOf(arrayProcessor.getOutput(), arraySamples),
+            Arrays.copyOf(directProcessor.getOutput(), directSamples)
+        );
+        assertEquals(0, direct.position());
+        assertEquals(frame.length, direct.limit());
+    }
+}
@@ -0,0 +1,174 @@
+package com.getcapacitor.community.tts;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Test;
+
+public class PendingPlaybackTest {
+
+    @Test
+    public void mixedQueue_streamWaitsForFilesAndHoldsBackLaterSegments() {
+        PendingPlayback pending = new PendingPlayback();
+        TTSRequest file = request("file");
+        TTSRequest stream = streamed("stream");
+        TTSRequest memory = request("memory");
+        pending.add(file);
+        pending.add(stream);
+        pending.add(memory);
+
+        // 流式分段已可开始，但前面的文件还在合成
+        assertEquals(Collections.emptyList(), pending.pollReleasable());
+        file.ready = true;
+        assertEquals(Collections.singletonList(file), pending.pollReleasable());
+        // 文件仍在播放，推流不能开始；后面的分段也不能越过它
+        memory.ready = true;
+        assertEquals(Collections.emptyList(), pending.pollReleasable());
+
+        pending.onPlaybackFinished(file);
+        assertEquals(Collections.singletonList(stream), pending.pollReleasable());
+        assertEquals(Collections.emptyList(), pending.pollReleasable());
+
+        pending.onStreamFinished(stream);
+        assertEquals(Collections.singletonList(memory), pending.pollReleasable());
+        assertEquals(0, pending.size());
+    }
+
+    @Test
+    public void consecutiveFiles_areHandedOverTogether() {
+        PendingPlayback pending = new PendingPlayback();
+        TTSRequest first = request("first");
+        TTSRequest second = request("second");
+        TTSRequest stream = streamed("stream");
+        first.ready = true;
+        second.ready = true;
+        pending.add(first);
+        pending.add(second);
+        pending.add(stream);
+
+        // 文件和内存分段交给调度器无缝衔接，流式分段等它们都播放完
+        assertEquals(Arrays.asList(first, second), pending.pollReleasable());
+        pending.onPlaybackFinished(first);
+        assertEquals(Collections.emptyList(), pending.pollReleasable());
+        pending.onPlaybackFinished(second);
+        assertEquals(Collections.singletonList(stream), pending.pollReleasable());
+    }
+
+    @Test
+    public void highPriorityStream_goesAheadOfWaitingSegments() {
+        PendingPlayback pending = new PendingPlayback();
+        TTSRequest routine = request("routine");
+        TTSRequest urgent = streamed("urgent");
+        urgent.priority = TTSRequest.PRIORITY_HIGH;
+        pending.add(routine);
+        pending.add(urgent);
+        routine.ready = true;
+
+        assertEquals(Collections.singletonList(urgent), pending.pollReleasable());
+        assertEquals(Collections.emptyList(), pending.pollReleasable());
+        pending.onStreamFinished(urgent);
+        assertEquals(Collections.singletonList(routine), pending.pollReleasable());
+    }
+
+    @Test
+    public void failedSegments_areReleasedWithoutHoldingBackTheStream() {
+        PendingPlayback pending = new PendingPlayback();
+        TTSRequest failed = request("failed");
+        TTSRequest stream = streamed("stream");
+        failed.ready = true;
+        failed.failed = true;
+        pending.add(failed);
+        pending.add(stream);
+
+        assertEquals(Arrays.asList(failed, stream), pending.pollReleasable());
+    }
+
+    @Test
+    public void clear_returnsWaitingSegmentsAndForgetsPlayback() {
+        PendingPlayback pending = new PendingPlayback();
+        TTSRequest playing = request("playing");
+        TTSRequest waiting = request("waiting");
+        playing.ready = true;
+        pending.add(playing);
+        pending.add(waiting);
+        assertEquals(Collections.singletonList(playing), pending.pollReleasable());
+
+        assertEquals(Collections.singletonList(waiting), pending.clear());
+
+        // stop() 之后的推流不再等待被丢弃的分段
+        TTSRequest stream = streamed("stream");
+        pending.add(stream);
+        assertEquals(Collections.singletonList(stream), pending.pollReleasable());
+        // 迟到的回调不影响新的分段
+        pending.onPlaybackFinished(playing);
+        assertFalse(pending.contains(stream));
+    }
+
+    @Test
+    public void admits_countsCachedEntriesAgainstTheByteLimit() {
+        PendingPlayback pending = new PendingPlayback();
+        TTSRequest first = cached("first");
+        TTSRequest second = cached("second");
+        pending.add(first);
+        assertTrue(pending.admits(1, 0, 1000));
+        // 缓存命中的分段不经过合成，提交后立即就绪
+        pending.markReady(first, 600);
+        pending.add(second);
+        pending.markReady(second, 600);
+
+        assertEquals(1200, pending.getQueuedBytes());
+        assertFalse(pending.admits(2, 0, 1000));
+        // 没有分段在途时总是放行
+        assertTrue(pending.admits(0, 0, 1000));
+
+        assertEquals(Arrays.asList(first, second), pending.pollReleasable());
+        // 交给调度器后仍计入，直到播放完毕
+        assertFalse(pending.admits(2, 0, 1000));
+        pending.release(first);
+        assertEquals(600, pending.getQueuedBytes());
+        assertTrue(pending.admits(1, 0, 1000));
+        pending.release(second);
+        assertEquals(0, pending.getQueuedBytes());
+    }
+
+    @Test
+    public void admits_limitsSegmentCountIndependentlyOfBytes() {
+        PendingPlayback pending = new PendingPlayback();
+
+        assertTrue(pending.admits(1, 2, 0));
+        assertFalse(pending.admits(2, 2, 0));
+        assertTrue(pending.admits(5, 0, 0));
+    }
+
+    @Test
+    public void markReady_doesNotCountDiscardedSegments() {
+        PendingPlayback pending = new PendingPlayback();
+        TTSRequest request = cached("discarded");
+        pending.add(request);
+        pending.clear();
+
+        // stop() 之后才完成查找的分段不会再被释放
+        pending.markReady(request, 500);
+        assertEquals(0, pending.getQueuedBytes());
+        pending.release(request);
+        assertEquals(0, pending.getQueuedBytes());
+    }
+
+    private static TTSRequest cached(String utteranceId) {
+        TTSRequest request = request(utteranceId);
+        request.cached = true;
+        return request;
+    }
+
+    private static TTSRequest request(String utteranceId) {
+        return new TTSRequest("", utteranceId, 0, false, 1.0f, null);
+    }
+
+    private static TTSRequest streamed(String utteranceId) {
+        TTSRequest request = request(utteranceId);
+        request.streaming = true;
+        request.ready = true;
+        return request;
+    }
+}
@@ -0,0 +1,120 @@
+package com.getcapacitor.community.tts;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class PrerenderJobTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void next_respectsConcurrencyAndRetriesInterruptedTexts() {
+        PrerenderJob job = job("a", "b", "c");
+        job.start(new PromptStore(folder.getRoot()));
+
+        assertEquals(0, job.next());
+        assertEquals(1, job.next());
+        assertEquals(-1, job.next());
+
+        // 被 stop() 中止的文本排在最前面
+        job.retry(1);
+        assertEquals(1, job.next());
+        job.onRendered(true);
+        job.onRendered(false);
+        assertEquals(2, job.next());
+        assertFalse(job.isFinished());
+        job.onRendered(true);
+
+        assertTrue(job.isFinished());
+        assertEquals(2, job.getCompleted());
+        assertEquals(1, job.getFailed());
+    }
+
+    @Test
+    public void start_skipsStoredAndDuplicateTexts() throws IOException {
+        PromptStore store = new PromptStore(folder.newFolder("prompts"));
+        PrerenderJob job = job("stored", "new", "new");
+        store.add(job.key(0), audioFile("stored"));
+
+        job.start(store);
+
+        assertEquals(2, job.getCompleted());
+        assertEquals(1, job.next());
+        assertEquals(-1, job.next());
+    }
+
+    @Test
+    public void cancel_dropsPendingTexts() {
+        PrerenderJob job = job("a", "b", "c");
+        job.start(new PromptStore(folder.getRoot()));
+        assertEquals(0, job.next());
+
+        job.cancel();
+        assertEquals(-1, job.next());
+        assertFalse(job.isFinished());
+        job.onRendered(true);
+        assertTrue(job.isFinished());
+    }
+
+    @Test
+    public void saveAndLoad_roundTripsDefinition() throws IOException {
+        File file = new File(folder.getRoot(), "job" + PrerenderJob.EXTENSION);
+        new PrerenderJob("job", Arrays.asList("Gleis 3", "Zurückbleiben, bitte"), "de-DE", "de-de-x-voice", 1.2f, 0.9f, 3).save(file);
+        new PrerenderJob("other", Arrays.asList("x"), "en-US", null, 1.0f, 1.0f, 1).save(new File(folder.getRoot(), "other.job"));
+
+        PrerenderJob loaded = PrerenderJob.load("job", file);
+        PrerenderJob withoutVoice = PrerenderJob.load("other", new File(folder.getRoot(), "other.job"));
+
+        assertEquals(Arrays.asList("Gleis 3", "Zurückbleiben, bitte"), loaded.texts);
+        assertEquals("de-DE", loaded.lang);
+        assertEquals("de-de-x-voice", loaded.voiceURI);
+        assertEquals(1.2f, loaded.rate, 0);
+        assertEquals(0.9f, loaded.pitch, 0);
+        assertEquals(3, loaded.concurrency);
+        assertNull(withoutVoice.voiceURI);
+        assertFalse(new File(folder.getRoot(), "job.job.part").exists());
+    }
+
+    @Test
+    public void store_reloadsManifestAndIgnoresTruncatedLine() throws IOException {
+        File directory = folder.newFolder("prompts");
+        PromptStore store = new PromptStore(directory);
+        File stored = store.add("abc", audioFile("abc"));
+        assertEquals(stored, store.find("abc"));
+        assertNull(store.find("def"));
+        try (OutputStream output = new FileOutputStream(new File(directory, PromptStore.MANIFEST), true)) {
+            // 进程在写入清单时退出
+            output.write("def\t".getBytes(StandardCharsets.UTF_8));
+        }
+
+        PromptStore reloaded = new PromptStore(directory);
+        reloaded.load();
+
+        assertEquals(1, reloaded.getEntryCount());
+        assertEquals(3, reloaded.getTotalBytes());
+        assertEquals(stored, reloaded.find("abc"));
+        assertNull(reloaded.find("def"));
+    }
+
+    private File audioFile(String content) throws IOException {
+        File file = folder.newFile();
+        try (OutputStream output = new FileOutputStream(file)) {
+            output.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        return file;
+    }
+
+    private static PrerenderJob job(String... texts) {
+        return new PrerenderJob("job", Arrays.asList(texts), "en-US", null, 1.0f, 1.0f, 2);
+    }
+}
@@ -0,0 +1,160 @@
+package com.getcapacitor.community.tts;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class PromptPackTest {
+
+    private static final int PROMPTS = 5000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void write_roundTripsPcmAndWavPrompts() throws IOException {
+        String first = key("first");
+        String second = key("second");
+        File wav = wavFile(16000, 2, new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 });
+        File file = folder.newFile("prompts.pack");
+
+        new PromptPackBuilder().add(first, 24000, 1, new byte[] { 10, 11, 12, 13 }).add(second, wav).write(file);
+        PromptPack pack = PromptPack.open(file);
+
+        assertEquals(2, pack.size());
+        int index = pack.indexOf(first);
+        assertEquals(24000, pack.getSampleRate(index));
+        assertEquals(1, pack.getChannelCount(index));
+        assertArrayEquals(new byte[] { 10, 11, 12, 13 }, bytes(pack.slice(index)));
+
+        index = pack.indexOf(second);
+        assertEquals(16000, pack.getSampleRate(index));
+        assertEquals(2, pack.getChannelCount(index));
+        // WAV 头不写入包中
+        assertArrayEquals(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 }, bytes(pack.slice(index)));
+
+        assertEquals(-1, pack.indexOf(key("missing")));
+        assertEquals(-1, pack.indexOf("not a key"));
+        assertFalse(new File(file.getPath() + ".part").exists());
+    }
+
+    @Test
+    public void indexOf_findsEveryPromptOfLargePack() throws IOException {
+        PromptPack pack = largePack();
+
+        for (int i = 0; i < PROMPTS; i++) {
+            int index = pack.indexOf(key("prompt " + i));
+            assertTrue("prompt " + i, index >= 0);
+            assertEquals(i % 2 + 1, pack.getChannelCount(index));
+            assertEquals(4 * (i % 2 + 1), pack.getLength(index));
+        }
+    }
+
+    @Test
+    public void open_rejectsDamagedPacks() throws IOException {
+        File file = folder.newFile("damaged.pack");
+        new PromptPackBuilder().add(key("a"), 24000, 1, new byte[64]).write(file);
+
+        try (RandomAccessFile output = new RandomAccessFile(file, "rw")) {
+            // 数据被截断
+            output.setLength(file.length() - 2);
+        }
+        assertThrows(IOException.class, () -> PromptPack.open(file));
+
+        try (RandomAccessFile output = new RandomAccessFile(file, "rw")) {
+            output.write("RIFF".getBytes(StandardCharsets.US_ASCII));
+        }
+        assertThrows(IOException.class, () -> PromptPack.open(file));
+    }
+
+    @Test
+    public void add_rejectsInvalidKeysAndFormats() {
+        PromptPackBuilder builder = new PromptPackBuilder();
+        assertThrows(IllegalArgumentException.class, () -> builder.add("ABC", 24000, 1, new byte[4]));
+        assertThrows(IllegalArgumentException.class, () -> builder.add(key("odd"), 24000, 2, new byte[6]));
+        assertEquals(0, builder.size());
+    }
+
+    @Test
+    public void add_rejectsMalformedWavFilesWithoutLosingOtherPrompts() throws IOException {
+        PromptPackBuilder builder = new PromptPackBuilder().add(key("good"), wavFile(16000, 1, new byte[] { 1, 2 }));
+        File text = folder.newFile();
+        try (RandomAccessFile output = new RandomAccessFile(text, "rw")) {
+            output.write("not audio".getBytes(StandardCharsets.US_ASCII));
+        }
+        assertThrows(IOException.class, () -> builder.add(key("text"), text));
+        // 截断后长度为奇数的 16 位数据
+        assertThrows(IllegalArgumentException.class, () -> builder.add(key("odd"), wavFile(16000, 1, new byte[] { 1, 2, 3 })));
+
+        File file = folder.newFile();
+        builder.write(file);
+        assertEquals(1, PromptPack.open(file).size());
+    }
+
+    @Test
+    public void wrap_splitsSliceIntoChunksWithoutCopying() throws IOException {
+        byte[] pcm = new byte[PcmBufferPool.CHUNK_BYTES * 2 + 100];
+        for (int i = 0; i < pcm.length; i++) {
+            pcm[i] = (byte) i;
+        }
+        File file = folder.newFile("large.pack");
+        new PromptPackBuilder().add(key("large"), 22050, 1, pcm).write(file);
+        PromptPack pack = PromptPack.open(file);
+
+        PcmBuffer buffer = PcmBuffer.wrap(pack.slice(0), 22050, 2, 1);
+        List<ByteBuffer> chunks = buffer.getChunks();
+
+        assertEquals(3, chunks.size());
+        assertEquals(100, chunks.get(2).remaining());
+        ByteBuffer joined = ByteBuffer.allocate(pcm.length);
+        for (ByteBuffer chunk : chunks) {
+            assertTrue(chunk.isDirect());
+            joined.put(chunk);
+        }
+        assertArrayEquals(pcm, joined.array());
+        buffer.release();
+    }
+
+    private PromptPack largePack() throws IOException {
+        PromptPackBuilder builder = new PromptPackBuilder();
+        for (int i = 0; i < PROMPTS; i++) {
+            int channelCount = i % 2 + 1;
+            builder.add(key("prompt " + i), 24000, channelCount, new byte[4 * channelCount]);
+        }
+        File file = folder.newFile();
+        builder.write(file);
+        return PromptPack.open(file);
+    }
+
+    private File wavFile(int sampleRate, int channelCount, byte[] pcm) throws IOException {
+        ByteBuffer wav = ByteBuffer.allocate(44 + pcm.length).order(ByteOrder.LITTLE_ENDIAN);
+        wav.put("RIFF".getBytes(StandardCharsets.US_ASCII)).putInt(36 + pcm.length).put("WAVE".getBytes(StandardCharsets.US_ASCII));
+        wav.put("fmt ".getBytes(StandardCharsets.US_ASCII)).putInt(16).putShort((short) 1).putShort((short) channelCount);
+        wav.putInt(sampleRate).putInt(sampleRate * channelCount * 2).putShort((short) (channelCount * 2)).putShort((short) 16);
+        wav.put("data".getBytes(StandardCharsets.US_ASCII)).putInt(pcm.length).put(pcm);
+        File file = folder.newFile();
+        try (RandomAccessFile output = new RandomAccessFile(file, "rw")) {
+            output.write(wav.array());
+        }
+        return file;
+    }
+
+    private static byte[] bytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private static String key(String text) {
+        return AudioCache.key(text, "en-US", null, 1.0f, 1.0f);
+    }
+}
@@ -0,0 +1,200 @@
+package com.getcapacitor.community.tts;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+public class UtteranceDispatcherTest {
+
+    private static final int UTTERANCES = 4000;
+    private static final int THREADS = 8;
+
+    private static class RecordingItem implements UtteranceDispatcher.Item {
+
+        final AtomicInteger done = new AtomicInteger();
+        final AtomicInteger errors = new AtomicInteger();
+
+        @Override
+        public void onDone() {
+            done.incrementAndGet();
+        }
+
+        @Override
+        public void onError() {
+            errors.incrementAndGet();
+        }
+    }
+
+    private static class RecordingHandler implements UtteranceDispatcher.RequestHandler {
+
+        final Map<String, AtomicInteger> finished = new ConcurrentHashMap<>();
+        final Map<String, AtomicInteger> audio = new ConcurrentHashMap<>();
+
+        @Override
+        public void onBeginSynthesis(TTSRequest request, int sampleRateInHz, int audioFormat, int channelCount) {}
+
+        @Override
+        public void onAudioAvailable(TTSRequest request, byte[] chunk) {
+            audio.computeIfAbsent(request.utteranceId, (id) -> new AtomicInteger()).incrementAndGet();
+        }
+
+        @Override
+        public void onRangeStart(TTSRequest request, int start, int end) {}
+
+        @Override
+        public void onDone(TTSRequest request) {
+            finish(request.utteranceId);
+        }
+
+        @Override
+        public void onError(TTSRequest request) {
+            finish(request.utteranceId);
+        }
+
+        void finish(String utteranceId) {
+            finished.computeIfAbsent(utteranceId, (id) -> new AtomicInteger()).incrementAndGet();
+        }
+    }
+
+    @Test
+    public void onDone_routesToBackgroundItemsBeforeRequests() {
+        UtteranceRegistry<TTSRequest> requests = new UtteranceRegistry<>();
+        UtteranceRegistry<RecordingItem> preloads = new UtteranceRegistry<>();
+        RecordingHandler handler = new RecordingHandler();
+        UtteranceDispatcher dispatcher = new UtteranceDispatcher(requests, Collections.singletonList(preloads), handler);
+        RecordingItem item = new RecordingItem();
+        preloads.register("preload", item);
+        requests.register("speak", request("speak"));
+
+        dispatcher.onAudioAvailable("speak", new byte[4]);
+        dispatcher.onAudioAvailable("preload", new byte[4]);
+        dispatcher.onDone("preload");
+        dispatcher.onStop("speak");
+        dispatcher.onDone("speak");
+        dispatcher.onError("unknown");
+
+        assertEquals(1, item.done.get());
+        assertEquals(0, item.errors.get());
+        assertEquals(1, handler.audio.get("speak").get());
+        assertEquals(1, handler.finished.get("speak").get());
+        assertEquals(Collections.singleton("speak"), handler.finished.keySet());
+    }
+
+    /**
+     * Simulates thousands of overlapping speak(), preload(), render() and prerender() calls: every utterance receives
+     * racing audio, done, error and stop callbacks from several binder threads while stop() keeps claiming everything
+     * in the background.
+     */
+    @Test
+    public void overlappingUtterances_finishEachOwnerExactlyOnce() throws Exception {
+        UtteranceRegistry<TTSRequest> requests = new UtteranceRegistry<>();
+        List<UtteranceRegistry<RecordingItem>> itemRegistries = Arrays.asList(
+            new UtteranceRegistry<>(),
+            new UtteranceRegistry<>(),
+            new UtteranceRegistry<>()
+        );
+        RecordingHandler handler = new RecordingHandler();
+        UtteranceDispatcher dispatcher = new UtteranceDispatcher(requests, new ArrayList<>(itemRegistries), handler);
+
+        List<RecordingItem> items = new ArrayList<>();
+        Map<String, AtomicInteger> stoppedRequests = new ConcurrentHashMap<>();
+        for (int i = 0; i < UTTERANCES; i++) {
+            items.add(new RecordingItem());
+        }
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread stopper = new Thread(() -> {
+            while (running.get()) {
+                // 与 TextToSpeech.stop() 一样，被认领的后台项按失败处理
+                for (UtteranceRegistry<RecordingItem> registry : itemRegistries) {
+                    for (RecordingItem item : registry.claimAll()) {
+                        item.onError();
+                    }
+                }
+                for (TTSRequest request : requests.claimAll()) {
+                    stoppedRequests.computeIfAbsent(request.utteranceId, (id) -> new AtomicInteger()).incrementAndGet();
+                }
+                Thread.yield();
+            }
+        });
+        stopper.start();
+
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < UTTERANCES; i++) {
+            order.add(i);
+        }
+        Collections.shuffle(order);
+
+        ExecutorService callers = Executors.newFixedThreadPool(THREADS);
+        ExecutorService binders = Executors.newFixedThreadPool(THREADS);
+        Queue<Future<?>> tasks = new ConcurrentLinkedQueue<>();
+        for (int index : order) {
+            tasks.add(
+                callers.submit(() -> {
+                    String utteranceId = "utterance-" + index;
+                    // 每四个中有一个是 speak() 请求，其余依次是预加载、渲染和预渲染
+                    if (index % 4 == 3) {
+                        requests.register(utteranceId, request(utteranceId));
+                    } else {
+                        itemRegistries.get(index % 4).register(utteranceId, items.get(index));
+                    }
+                    tasks.add(binders.submit(() -> dispatcher.onAudioAvailable(utteranceId, new byte[2])));
+                    tasks.add(binders.submit(() -> dispatcher.onDone(utteranceId)));
+                    tasks.add(binders.submit(() -> dispatcher.onError(utteranceId)));
+                    tasks.add(binders.submit(() -> dispatcher.onStop(utteranceId)));
+                })
+            );
+        }
+
+        callers.shutdown();
+        assertTrue(callers.awaitTermination(30, TimeUnit.SECONDS));
+        binders.shutdown();
+        assertTrue(binders.awaitTermination(30, TimeUnit.SECONDS));
+        running.set(false);
+        stopper.join();
+        // 把工作线程中的异常抛到测试线程
+        for (Future<?> task : tasks) {
+            task.get();
+        }
+
+        assertEquals(0, requests.size());
+        for (UtteranceRegistry<RecordingItem> registry : itemRegistries) {
+            assertEquals(0, registry.size());
+        }
+        for (int i = 0; i < UTTERANCES; i++) {
+            String utteranceId = "utterance-" + i;
+            if (i % 4 == 3) {
+                int finished = count(handler.finished, utteranceId) + count(stoppedRequests, utteranceId);
+                assertEquals(utteranceId, 1, finished);
+            } else {
+                RecordingItem item = items.get(i);
+                assertEquals(utteranceId, 1, item.done.get() + item.errors.get());
+                assertNull(utteranceId, handler.finished.get(utteranceId));
+                assertNull(utteranceId, handler.audio.get(utteranceId));
+            }
+        }
+    }
+
+    private static int count(Map<String, AtomicInteger> counters, String utteranceId) {
+        AtomicInteger counter = counters.get(utteranceId);
+        return counter != null ? counter.get() : 0;
+    }
+
+    private static TTSRequest request(String utteranceId) {
+        return new TTSRequest("", utteranceId, 0, false, 1.0f, null);
+    }
+}
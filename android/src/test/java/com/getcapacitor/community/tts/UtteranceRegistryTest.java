@@ -0,0 +1,26 @@
+package com.getcapacitor.community.tts;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class UtteranceRegistryTest {
+
+    @Test
+    public void claim_returnsEntryOnlyOnce() {
+        UtteranceRegistry<String> registry = new UtteranceRegistry<>();
+        registry.register("a", "request");
+
+        assertEquals("request", registry.peek("a"));
+        assertEquals("request", registry.claim("a"));
+        assertNull(registry.claim("a"));
+        assertNull(registry.peek("a"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void register_rejectsDuplicateIds() {
+        UtteranceRegistry<String> registry = new UtteranceRegistry<>();
+        registry.register("a", "first");
+        registry.register("a", "second");
+    }
+}
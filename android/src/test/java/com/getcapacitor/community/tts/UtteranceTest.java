@@ -0,0 +1,64 @@
+package com.getcapacitor.community.tts;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Test;
+
+public class UtteranceTest {
+
+    private static class NamedCallback implements SpeakResultCallback {
+
+        final String name;
+
+        NamedCallback(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void onDone() {}
+
+        @Override
+        public void onError() {}
+
+        @Override
+        public void onRangeStart(int start, int end) {}
+    }
+
+    @Test
+    public void coalesce_sharesResultUntilPlaybackStarts() {
+        NamedCallback first = new NamedCallback("first");
+        NamedCallback second = new NamedCallback("second");
+        NamedCallback late = new NamedCallback("late");
+        TTSRequest.Utterance utterance = new TTSRequest.Utterance(first, 2);
+
+        assertTrue(utterance.coalesce(second));
+        assertTrue(utterance.markStarted());
+        // 已开始出声，后来的调用会听到不完整的内容
+        assertFalse(utterance.coalesce(late));
+
+        assertFalse(utterance.segmentDone());
+        assertTrue(utterance.segmentDone());
+        assertEquals(Arrays.asList(first, second), utterance.getCallbacks());
+    }
+
+    @Test
+    public void coalesce_isRejectedAfterFailure() {
+        NamedCallback first = new NamedCallback("first");
+        TTSRequest.Utterance utterance = new TTSRequest.Utterance(first, 1);
+
+        assertTrue(utterance.fail());
+        assertFalse(utterance.coalesce(new NamedCallback("second")));
+        assertEquals(Collections.singletonList(first), utterance.getCallbacks());
+    }
+
+    @Test
+    public void getCallbacks_skipsMissingCallback() {
+        TTSRequest.Utterance utterance = new TTSRequest.Utterance(null, 1);
+        NamedCallback coalesced = new NamedCallback("coalesced");
+
+        assertTrue(utterance.coalesce(coalesced));
+        assertEquals(Collections.singletonList(coalesced), utterance.getCallbacks());
+    }
+}
@@ -0,0 +1,80 @@
+package com.getcapacitor.community.tts;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import org.junit.Test;
+
+public class WavHeaderTest {
+
+    @Test
+    public void parse_readsCanonicalHeader() throws IOException {
+        ByteBuffer header = header(1, 24000, 1, 48000);
+
+        WavHeader wav = WavHeader.parse(header, 44 + 48000);
+
+        assertEquals(24000, wav.sampleRate);
+        assertEquals(1, wav.channelCount);
+        assertEquals(16, wav.bitsPerSample);
+        assertEquals(44, wav.dataOffset);
+        assertEquals(48000, wav.dataLength);
+        assertEquals(2, wav.getFrameSize());
+        assertEquals(1000, wav.getDurationMs());
+    }
+
+    @Test
+    public void parse_skipsUnknownChunks() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(64).order(ByteOrder.LITTLE_ENDIAN);
+        header.put(ascii("RIFF")).putInt(0).put(ascii("WAVE"));
+        putFormat(header, 1, 16000, 2);
+        // 奇数长度的块后面有一个填充字节
+        header.put(ascii("LIST")).putInt(3).put(new byte[4]);
+        header.put(ascii("data")).putInt(6400);
+        header.flip();
+
+        WavHeader wav = WavHeader.parse(header, 1_000_000);
+
+        assertEquals(2, wav.channelCount);
+        assertEquals(56, wav.dataOffset);
+        assertEquals(6400, wav.dataLength);
+        assertEquals(100, wav.getDurationMs());
+    }
+
+    @Test
+    public void parse_fallsBackToFileLengthForUnknownDataLength() throws IOException {
+        assertEquals(1000, WavHeader.parse(header(1, 22050, 1, 0), 1044).dataLength);
+        assertEquals(1000, WavHeader.parse(header(1, 22050, 1, -1), 1044).dataLength);
+    }
+
+    @Test
+    public void parse_rejectsOtherFiles() {
+        assertThrows(IOException.class, () -> WavHeader.parse(ByteBuffer.wrap(ascii("OggS")), 4));
+        assertThrows(IOException.class, () -> WavHeader.parse(header(3, 24000, 1, 100), 144));
+
+        ByteBuffer truncated = header(1, 24000, 1, 100);
+        truncated.limit(36);
+        assertThrows(IOException.class, () -> WavHeader.parse(truncated, 36));
+    }
+
+    private static ByteBuffer header(int encoding, int sampleRate, int channelCount, int dataLength) {
+        ByteBuffer header = ByteBuffer.allocate(44).order(ByteOrder.LITTLE_ENDIAN);
+        header.put(ascii("RIFF")).putInt(36 + dataLength).put(ascii("WAVE"));
+        putFormat(header, encoding, sampleRate, channelCount);
+        header.put(ascii("data")).putInt(dataLength);
+        header.flip();
+        return header;
+    }
+
+    private static void putFormat(ByteBuffer header, int encoding, int sampleRate, int channelCount) {
+        header.put(ascii("fmt ")).putInt(16);
+        header.putShort((short) encoding).putShort((short) channelCount).putInt(sampleRate);
+        header.putInt(sampleRate * channelCount * 2).putShort((short) (channelCount * 2)).putShort((short) 16);
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -1,10 +1,41 @@
+/// <reference types="@capacitor/cli" />
+
 import type { PluginListenerHandle } from '@capacitor/core';
 
+declare module '@capacitor/cli' {
+  export interface PluginsConfig {
+    TextToSpeech?: {
+      /**
+       * Synthesize a short utterance right after the engine has been initialized, so the first `speak` call
+       * does not have to wait for the voice to load.
+       *
+       * Only available for Android.
+       *
+       * @default false
+       * @example true
+       */
+      warmUp?: boolean;
+      /**
+       * The language used by `warmUp`. Use the language of your first utterance.
+       *
+       * Only available for Android.
+       *
+       * @default The device language
+       * @example "en-US"
+       */
+      warmUpLang?: string;
+    };
+  }
+}
+
 export interface TextToSpeechPlugin {
   /**
    * Starts the TTS engine and plays the desired text.
+   * Utterances returned by `preload` can be played by passing their handle instead of a text.
+   * If the utterance is dropped from the queue before it is played, the promise is rejected with a
+   * `QueueDropReason` as error code.
    */
-  speak(options: TTSOptions): Promise<void>;
+  speak(options: TTSOptions | PreloadedTTSOptions): Promise<void>;
   /**
    * Stops the TTS engine.
    */
@@ -15,8 +46,10 @@ export interface TextToSpeechPlugin {
   getSupportedLanguages(): Promise<{ languages: string[] }>;
   /**
    * Returns a list of supported voices.
+   * The index of a voice in the unfiltered list is the value expected by the `voice` option.
+   * Pass `lang` to only return the voices for that BCP 47 language tag.
    */
-  getSupportedVoices(): Promise<{ voices: SpeechSynthesisVoice[] }>;
+  getSupportedVoices(options?: { lang?: string }): Promise<{ voices: SpeechSynthesisVoice[] }>;
   /**
    * Checks if a specific BCP 47 language tag is supported.
    */
@@ -28,9 +61,200 @@ export interface TextToSpeechPlugin {
    */
   openInstall(): Promise<void>;
 
+  /**
+   * Synthesizes a batch of texts in the background without playing them.
+   * The returned handles can be passed to `speak` to play an utterance without synthesis latency.
+   *
+   * Only available for Android.
+   */
+  preload(options: PreloadOptions): Promise<{ handles: string[] }>;
+  /**
+   * Synthesizes a text into a file in the app's data directory, optionally compressed.
+   * Set `chunkSize` to additionally receive the file as `onRenderChunk` events before the promise resolves.
+   *
+   * Only available for Android.
+   */
+  render(options: RenderOptions): Promise<RenderResult>;
+  /**
+   * Renders a list of texts into a persistent prompt store in the background. `speak` plays texts found in the
+   * store without invoking the engine. The job is saved to disk, so it can be resumed after the app has been
+   * killed by calling `prerender` with the same `jobId` and no `texts`; prompts that are already stored are skipped.
+   * Progress is reported through `onPrerenderProgress` events.
+   *
+   * Only available for Android.
+   */
+  prerender(options: PrerenderOptions): Promise<{ jobId: string; total: number }>;
+  /**
+   * Stops a prerender job and discards it. Prompts that were already rendered are kept.
+   *
+   * Only available for Android.
+   */
+  cancelPrerender(options: { jobId: string }): Promise<void>;
+  /**
+   * Returns the prerender jobs that have not finished, including those interrupted by the app being killed.
+   *
+   * Only available for Android.
+   */
+  getPrerenderJobs(): Promise<{ jobs: PrerenderJob[] }>;
+  /**
+   * Packs every prompt rendered by `prerender` into a single file and loads it, see `loadPromptPack`.
+   * Defaults to `tts-prompts.pack` in the app's data directory.
+   * Prompts that cannot be read or are not 16-bit PCM are left out of the pack and their keys are returned in `rejected`.
+   *
+   * Only available for Android.
+   */
+  buildPromptPack(options?: {
+    path?: string;
+  }): Promise<{ uri: string; entries: number; bytes: number; rejected: string[] }>;
+  /**
+   * Memory-maps a prompt pack built by `buildPromptPack`, e.g. one shipped with the app and copied to the device.
+   * `speak` plays its prompts straight from memory without opening a file or preparing a player.
+   * Accepts an absolute path or a `file://` URI.
+   *
+   * Only available for Android.
+   */
+  loadPromptPack(options: { path: string }): Promise<{ entries: number }>;
+  /**
+   * Unloads all prompt packs.
+   *
+   * Only available for Android.
+   */
+  unloadPromptPacks(): Promise<void>;
+  /**
+   * Enables or disables the on-disk cache for synthesized utterances.
+   * Cached utterances are played without invoking the TTS engine.
+   *
+   * Only available for Android.
+   */
+  configureCache(options: CacheOptions): Promise<void>;
+  /**
+   * Limits the number of segments waiting for synthesis in each priority lane and in total.
+   * When a limit is reached, `overloadPolicy` decides whether the new `speak` call is rejected or queued segments
+   * are dropped; the promise of the affected call is rejected with a `QueueDropReason` as error code.
+   * Synthesis pauses while too much audio is waiting for playback.
+   * Identical `speak` calls can be coalesced into a single utterance.
+   *
+   * Only available for Android.
+   */
+  configureQueue(options: QueueOptions): Promise<void>;
+  /**
+   * Configures how long the audio focus and routing are kept after the last queued utterance has finished.
+   * While utterances are queued, focus is held and routing is only changed when `forceSpeaker` changes.
+   *
+   * Only available for Android.
+   */
+  configureAudioSession(options: AudioSessionOptions): Promise<void>;
+  /**
+   * Configures the software processing applied to streamed and in-memory audio:
+   * fades against clicks, loudness normalization across voices and silence trimming.
+   * Volume and `audioChannel` are applied by the same stage.
+   *
+   * Only available for Android.
+   */
+  configureAudioProcessing(options: AudioProcessingOptions): Promise<void>;
+  /**
+   * Sets the number of engine instances that synthesize queued utterances in parallel.
+   * Playback order is unaffected; streamed utterances are always synthesized by the first instance.
+   *
+   * Only available for Android.
+   */
+  configureEngines(options: EngineOptions): Promise<void>;
+  /**
+   * Starts or stops the periodic `onMetrics` event.
+   *
+   * Only available for Android.
+   */
+  configureMetrics(options: MetricsOptions): Promise<void>;
+  /**
+   * Returns the hit/miss counters and the current size of the audio cache.
+   *
+   * Only available for Android.
+   */
+  getCacheStats(): Promise<CacheStats>;
+  /**
+   * Returns how long the player paused between consecutive queued utterances.
+   *
+   * Only available for Android.
+   */
+  getPlaybackStats(): Promise<PlaybackStats>;
+  /**
+   * Returns the load and utilization of every engine instance.
+   *
+   * Only available for Android.
+   */
+  getEngineStats(): Promise<{ engines: EngineStats[] }>;
+  /**
+   * Returns latency percentiles of the speech pipeline, from the `speak` call to audible playback.
+   * Pass `reset` to start a new measurement window after reading the current one.
+   *
+   * Only available for Android.
+   */
+  getMetrics(options?: { reset?: boolean }): Promise<PipelineMetrics>;
+
+  /**
+   * Validates and enqueues several utterances with a single bridge call.
+   * The promise resolves once all items are queued; per-item results are reported through `onBatchProgress` events.
+   *
+   * Only available for Android.
+   */
+  speakBatch(options: SpeakBatchOptions): Promise<{ batchId: string }>;
+
+  /**
+   * Called when the engine starts speaking a range of the text.
+   * For items of a `speakBatch()` call, `batchId` and `index` identify the item the offsets refer to.
+   */
   addListener(
     eventName: 'onRangeStart',
-    listenerFunc: (info: { start: number; end: number; spokenWord: string }) => void,
+    listenerFunc: (info: { start: number; end: number; spokenWord: string; batchId?: string; index?: number }) => void,
+  ): Promise<PluginListenerHandle>;
+  /**
+   * Called whenever an item of a `speakBatch()` call has been spoken or has failed.
+   *
+   * Only available for Android.
+   */
+  addListener(eventName: 'onBatchProgress', listenerFunc: (info: BatchProgress) => void): Promise<PluginListenerHandle>;
+  /**
+   * Called with the content of a `render()` call that has a `chunkSize`, in order.
+   *
+   * Only available for Android.
+   */
+  addListener(eventName: 'onRenderChunk', listenerFunc: (chunk: RenderChunk) => void): Promise<PluginListenerHandle>;
+  /**
+   * Called whenever a text of a `prerender()` job has been rendered or has failed, and once more when the job is done.
+   *
+   * Only available for Android.
+   */
+  addListener(
+    eventName: 'onPrerenderProgress',
+    listenerFunc: (progress: PrerenderProgress) => void,
+  ): Promise<PluginListenerHandle>;
+  /**
+   * Called periodically with the same data as `getMetrics()`, see `configureMetrics()`.
+   *
+   * Only available for Android.
+   */
+  addListener(eventName: 'onMetrics', listenerFunc: (metrics: PipelineMetrics) => void): Promise<PluginListenerHandle>;
+  /**
+   * Called whenever the number or size of the queued segments changes, see `configureQueue()`.
+   *
+   * Only available for Android.
+   */
+  addListener(eventName: 'onQueueDepth', listenerFunc: (depth: QueueDepth) => void): Promise<PluginListenerHandle>;
+  /**
+   * Called once the engine has been initialized. Calls made before are queued and run at this point.
+   * The event is retained, so listeners added afterwards still receive it.
+   *
+   * Only available for Android.
+   */
+  addListener(eventName: 'onReady', listenerFunc: (info: { initMs: number }) => void): Promise<PluginListenerHandle>;
+  /**
+   * Called whenever a Bluetooth audio output is connected or disconnected, with the devices now connected.
+   *
+   * Only available for Android.
+   */
+  addListener(
+    eventName: 'onAudioDevicesChanged',
+    listenerFunc: (info: { devices: ConnectedDevice[] }) => void,
   ): Promise<PluginListenerHandle>;
 
   setAudioRoute(options: { forceSpeaker: boolean }): Promise<void>;
@@ -49,6 +273,43 @@ export enum QueueStrategy {
   Add = 1,
 }
 
+export enum Priority {
+  /**
+   * Background prompts that are only spoken when nothing else is queued.
+   */
+  Low = 0,
+  /**
+   * Routine announcements.
+   */
+  Normal = 1,
+  /**
+   * Urgent alerts that are spoken before everything else that is queued.
+   */
+  High = 2,
+}
+
+export enum OverloadPolicy {
+  /**
+   * Drop the oldest queued segment to make room.
+   */
+  DropOldest = 0,
+  /**
+   * Reject the new `speak` call and keep everything that is queued.
+   */
+  RejectNew = 1,
+  /**
+   * Drop the oldest segment of the lowest priority to make room. If the new call has the lowest priority, it is rejected.
+   */
+  DropLowestPriority = 2,
+}
+
+/**
+ * Why an utterance was dropped from the queue before it was played:
+ * `queueFull` if it did not fit into the queue, `displaced` if it made room for another call
+ * and `expired` if its `ttl` has passed.
+ */
+export type QueueDropReason = 'queueFull' | 'displaced' | 'expired';
+
 export interface TTSOptions {
   /**
    * The text that will be synthesised when the utterance is spoken.
@@ -115,6 +376,610 @@ export interface TTSOptions {
    * @default 0 (stereo)
    */
   audioChannel?: number;
+  /**
+   * Play the synthesized audio while it is being generated instead of waiting for the whole utterance.
+   * The stream starts once the utterances before it have finished and cannot be interrupted, so
+   * utterances with `preempt` are synthesized into memory instead.
+   * Falls back to regular playback below Android 7.0.
+   * Only available for Android.
+   * @default false
+   */
+  streaming?: boolean;
+  /**
+   * Keep the synthesized audio in memory instead of a temporary file. Meant for short prompts;
+   * utterances that exceed the memory budget are synthesized again into a file.
+   * Ignored when `streaming` is enabled. Falls back to regular playback below Android 7.0.
+   * Only available for Android.
+   * @default false
+   */
+  memory?: boolean;
+  /**
+   * Split the text at sentence and clause boundaries and synthesize the next segment while the current one is playing.
+   * Texts longer than the engine input limit are always split.
+   * Only available for Android.
+   * @default false
+   */
+  chunking?: boolean;
+  /**
+   * Number of segments that are synthesized ahead of the one currently playing.
+   * Only available for Android.
+   * @default 1
+   */
+  lookahead?: number;
+  /**
+   * The lane of the utterance. Queued utterances of a higher priority are spoken first;
+   * within a lane, utterances are spoken in order.
+   * Only available for Android.
+   * @default Priority.Normal
+   */
+  priority?: Priority;
+  /**
+   * Interrupt the utterance that is currently playing if its priority is lower.
+   * Only available for Android.
+   * @default false
+   */
+  preempt?: boolean;
+  /**
+   * Play this utterance again from the start of the interrupted segment after it was preempted,
+   * instead of rejecting its promise.
+   * Only available for Android.
+   * @default false
+   */
+  resumable?: boolean;
+  /**
+   * Time in milliseconds after which the utterance is dropped if it has not started playing yet.
+   * Use `0` to keep it until it is spoken.
+   * Only available for Android.
+   * @default 0
+   */
+  ttl?: number;
+}
+
+export interface PreloadedTTSOptions {
+  /**
+   * Handle of an utterance returned by `preload`.
+   */
+  handle: string;
+  /**
+   * The volume that the utterance will be spoken at.
+   *
+   * @default 1.0
+   */
+  volume?: number;
+  /**
+   * Select the strategy to adopt when several requests to speak overlap.
+   *
+   * @default QueueStrategy.Flush
+   */
+  queueStrategy?: QueueStrategy;
+  /**
+   * Force audio output to speaker
+   * @default false
+   */
+  forceSpeaker?: boolean;
+  /**
+   * Select the audio channel to use for the utterance.
+   * @default 0 (stereo)
+   */
+  audioChannel?: number;
+  /**
+   * The lane of the utterance. Queued utterances of a higher priority are spoken first;
+   * within a lane, utterances are spoken in order.
+   * @default Priority.Normal
+   */
+  priority?: Priority;
+  /**
+   * Interrupt the utterance that is currently playing if its priority is lower.
+   * @default false
+   */
+  preempt?: boolean;
+  /**
+   * Play this utterance again from the start of the interrupted segment after it was preempted,
+   * instead of rejecting its promise.
+   * @default false
+   */
+  resumable?: boolean;
+  /**
+   * Time in milliseconds after which the utterance is dropped if it has not started playing yet.
+   * Use `0` to keep it until it is spoken.
+   * @default 0
+   */
+  ttl?: number;
+}
+
+export interface PreloadOptions {
+  /**
+   * The texts that will be synthesised.
+   * The handles are returned in the same order.
+   */
+  texts: string[];
+  /**
+   * The language of the utterances.
+   *
+   * @default "en-US"
+   */
+  lang?: string;
+  /**
+   * The speed at which the utterances will be spoken at.
+   *
+   * @default 1.0
+   */
+  rate?: number;
+  /**
+   * The pitch at which the utterances will be spoken at.
+   *
+   * @default 1.0
+   */
+  pitch?: number;
+  /**
+   * The index of the selected voice that will be used to speak the utterances.
+   */
+  voice?: number;
+}
+
+export interface RenderOptions {
+  /**
+   * The text that will be synthesised.
+   */
+  text: string;
+  /**
+   * The language of the utterance.
+   *
+   * @default "en-US"
+   */
+  lang?: string;
+  /**
+   * The speed at which the utterance will be spoken at.
+   *
+   * @default 1.0
+   */
+  rate?: number;
+  /**
+   * The pitch at which the utterance will be spoken at.
+   *
+   * @default 1.0
+   */
+  pitch?: number;
+  /**
+   * The index of the selected voice that will be used to speak the utterance.
+   */
+  voice?: number;
+  /**
+   * Output format: WAV as written by the engine, its raw 16-bit PCM data, AAC in an MP4 container (`.m4a`)
+   * or Opus in an Ogg container (`.ogg`). Opus requires Android 10 and a voice with a sample rate of 8, 12, 16, 24 or 48 kHz.
+   *
+   * @default "wav"
+   */
+  format?: 'wav' | 'pcm' | 'aac' | 'opus';
+  /**
+   * Target bit rate of `aac` and `opus` in bits per second.
+   *
+   * @default 64000
+   */
+  bitRate?: number;
+  /**
+   * When set, the file is also emitted as base64 `onRenderChunk` events of up to this many bytes.
+   *
+   * @default 0
+   */
+  chunkSize?: number;
+  /**
+   * Identifies the `onRenderChunk` events of this call. A random id is used if omitted.
+   */
+  id?: string;
+}
+
+export interface RenderResult {
+  /**
+   * The `id` of the call.
+   */
+  id: string;
+  /**
+   * `file://` URI of the rendered file. Rendering the same text with the same options again overwrites it.
+   */
+  uri: string;
+  format: 'wav' | 'pcm' | 'aac' | 'opus';
+  /**
+   * Size of the file in bytes.
+   */
+  bytes: number;
+  sampleRate: number;
+  channelCount: number;
+  durationMs: number;
+}
+
+export interface PrerenderOptions {
+  /**
+   * Identifies the job in events and for resuming it. A random id is used if omitted.
+   * Only letters, digits, `-` and `_` are allowed.
+   */
+  jobId?: string;
+  /**
+   * The texts that will be rendered. Omit to resume the saved job with the given `jobId`.
+   */
+  texts?: string[];
+  /**
+   * The language of the utterances.
+   *
+   * @default "en-US"
+   */
+  lang?: string;
+  /**
+   * The speed at which the utterances will be spoken at.
+   *
+   * @default 1.0
+   */
+  rate?: number;
+  /**
+   * The pitch at which the utterances will be spoken at.
+   *
+   * @default 1.0
+   */
+  pitch?: number;
+  /**
+   * The index of the selected voice that will be used to speak the utterances.
+   */
+  voice?: number;
+  /**
+   * Number of texts handed to the engine at once. The job pauses while utterances are being spoken,
+   * but live speech may wait for the texts that are already being rendered.
+   *
+   * @default 2
+   */
+  concurrency?: number;
+}
+
+export interface PrerenderJob {
+  jobId: string;
+  /**
+   * Number of texts that are in the store.
+   */
+  completed: number;
+  /**
+   * Number of texts that failed since the job was started in this process.
+   */
+  failed: number;
+  total: number;
+  /**
+   * Whether the job is running. Jobs that are not running can be resumed.
+   */
+  running: boolean;
+}
+
+export interface CacheOptions {
+  /**
+   * Whether synthesized utterances are cached.
+   *
+   * @default true
+   */
+  enabled?: boolean;
+  /**
+   * Maximum size of the cache in bytes. Least recently used entries are evicted first.
+   *
+   * @default 20971520
+   */
+  maxBytes?: number;
+}
+
+export interface QueueOptions {
+  /**
+   * Maximum number of segments waiting in the `Low` lane. Use `0` for no limit.
+   *
+   * @default 0
+   */
+  lowMaxDepth?: number;
+  /**
+   * Maximum number of segments waiting in the `Normal` lane. Use `0` for no limit.
+   *
+   * @default 0
+   */
+  normalMaxDepth?: number;
+  /**
+   * Maximum number of segments waiting in the `High` lane. Use `0` for no limit.
+   *
+   * @default 0
+   */
+  highMaxDepth?: number;
+  /**
+   * Maximum number of segments waiting for synthesis in all lanes. Use `0` for no limit.
+   *
+   * @default 0
+   */
+  maxPending?: number;
+  /**
+   * Maximum size in bytes of the text waiting for synthesis in all lanes, counted as UTF-16. Use `0` for no limit.
+   *
+   * @default 0
+   */
+  maxPendingBytes?: number;
+  /**
+   * Maximum number of segments being synthesized or waiting for playback, including the one that is playing.
+   * Synthesis pauses until a segment has been played. Use `0` for no limit.
+   *
+   * @default 0
+   */
+  maxQueued?: number;
+  /**
+   * Maximum size in bytes of the synthesized audio waiting for playback.
+   * Synthesis pauses until enough audio has been played. Use `0` for no limit.
+   *
+   * @default 0
+   */
+  maxQueuedBytes?: number;
+  /**
+   * What happens when a `speak` call does not fit into a lane or into the queue.
+   *
+   * @default OverloadPolicy.DropOldest
+   */
+  overloadPolicy?: OverloadPolicy;
+  /**
+   * Time in milliseconds in which a `speak` call with the same text, language, voice, rate, pitch, volume,
+   * audio channel, `forceSpeaker`, priority, `preempt`, `resumable` and `ttl` joins the pending utterance
+   * instead of queueing it again, as long as its playback has not started.
+   * All joined promises settle together; `onRangeStart` is only emitted once. Use `0` to disable.
+   *
+   * @default 0
+   */
+  coalesceWindowMs?: number;
+}
+
+export interface AudioSessionOptions {
+  /**
+   * Time in milliseconds to keep the audio focus after the queue runs empty.
+   * Utterances queued within this window do not duck other apps again. Use `0` to release focus immediately.
+   *
+   * @default 500
+   */
+  focusLingerMs?: number;
+}
+
+export interface AudioProcessingOptions {
+  /**
+   * Length of the fade-in and fade-out applied to every utterance in milliseconds. Use `0` to disable.
+   *
+   * @default 5
+   */
+  fadeMs?: number;
+  /**
+   * Adjust the gain per voice so that different voices play at the same loudness.
+   *
+   * @default false
+   */
+  normalizeLoudness?: boolean;
+  /**
+   * Target RMS level in dBFS used by `normalizeLoudness`.
+   *
+   * @default -20
+   */
+  targetLevelDb?: number;
+  /**
+   * Drop the leading and trailing silence of every utterance. Consecutive streamed or in-memory utterances
+   * are played back to back as one continuous stream, so back-to-back announcements sound like one sentence.
+   *
+   * @default false
+   */
+  trimSilence?: boolean;
+  /**
+   * Peak level in dBFS below which audio counts as silence for `trimSilence`.
+   *
+   * @default -50
+   */
+  silenceThresholdDb?: number;
+}
+
+export interface EngineOptions {
+  /**
+   * Number of engine instances, between 1 and 4. Every instance loads its own voice data,
+   * so larger pools trade memory for throughput.
+   *
+   * @default 1
+   */
+  poolSize?: number;
+}
+
+export interface MetricsOptions {
+  /**
+   * Interval in milliseconds at which `onMetrics` is emitted. Use `0` to stop the event.
+   *
+   * @default 0
+   */
+  intervalMs?: number;
+}
+
+export interface CacheStats {
+  /**
+   * Number of utterances that were played from the cache.
+   */
+  hits: number;
+  /**
+   * Number of cache lookups that required synthesis.
+   */
+  misses: number;
+  /**
+   * Number of cached utterances.
+   */
+  entries: number;
+  /**
+   * Current size of the cache in bytes.
+   */
+  bytes: number;
+  /**
+   * Maximum size of the cache in bytes.
+   */
+  maxBytes: number;
+}
+
+export interface SpeakBatchOptions {
+  /**
+   * The utterances to speak, in order. The `queueStrategy` of the individual items is ignored.
+   */
+  items: (TTSOptions | PreloadedTTSOptions)[];
+  /**
+   * Applied once before the first item; the remaining items are always added after it.
+   *
+   * @default QueueStrategy.Flush
+   */
+  queueStrategy?: QueueStrategy;
+}
+
+export interface RenderChunk {
+  /**
+   * The `id` of the `render()` call.
+   */
+  id: string;
+  /**
+   * Position of the chunk, starting at 0.
+   */
+  index: number;
+  /**
+   * Base64 encoded content of the chunk.
+   */
+  data: string;
+  /**
+   * Whether this is the final chunk.
+   */
+  last: boolean;
+}
+
+export interface PrerenderProgress {
+  jobId: string;
+  /**
+   * Number of texts that are in the store, including those rendered by an earlier run of the job.
+   */
+  completed: number;
+  failed: number;
+  total: number;
+  /**
+   * Whether the job has finished. Failed texts are rendered when the job is started again with the same texts.
+   */
+  done: boolean;
+}
+
+export interface BatchProgress {
+  /**
+   * The id returned by `speakBatch()`.
+   */
+  batchId: string;
+  /**
+   * Position of the item in `items`.
+   */
+  index: number;
+  /**
+   * Whether the item has been spoken, has failed or has been dropped from the queue.
+   */
+  status: 'done' | 'error' | 'dropped';
+  /**
+   * Why the item has been dropped, only set with status `dropped`.
+   */
+  reason?: QueueDropReason;
+  /**
+   * Number of items of the batch that have not finished yet.
+   */
+  remaining: number;
+}
+
+export interface QueueDepth {
+  /**
+   * Number of segments waiting for synthesis.
+   */
+  pending: number;
+  /**
+   * Size in bytes of the text waiting for synthesis.
+   */
+  pendingBytes: number;
+  /**
+   * Number of segments being synthesized or waiting for playback, including the one that is playing.
+   */
+  queued: number;
+  /**
+   * Size in bytes of the synthesized audio waiting for playback.
+   */
+  queuedBytes: number;
+}
+
+export interface PlaybackStats {
+  /**
+   * Number of measured transitions between consecutive utterances.
+   */
+  gaps: number;
+  /**
+   * Average gap in milliseconds.
+   */
+  averageGapMs: number;
+  /**
+   * Largest gap in milliseconds.
+   */
+  maxGapMs: number;
+  /**
+   * Most recent gap in milliseconds.
+   */
+  lastGapMs: number;
+}
+
+export interface EngineStats {
+  /**
+   * Position of the instance in the pool.
+   */
+  index: number;
+  /**
+   * Whether the instance has been initialized.
+   */
+  ready: boolean;
+  /**
+   * Number of utterances queued on the instance.
+   */
+  inFlight: number;
+  /**
+   * Number of utterances the instance has finished.
+   */
+  completed: number;
+  /**
+   * Total time in milliseconds the instance had utterances queued.
+   */
+  busyMs: number;
+  /**
+   * Share of the lifetime of the instance it was busy, between 0 and 1.
+   */
+  utilization: number;
+}
+
+export interface PipelineMetrics {
+  /**
+   * Time from the `speak` call until its audio starts playing, in milliseconds.
+   */
+  timeToFirstAudioMs: Distribution;
+  /**
+   * Time the engine took to synthesize a segment, in milliseconds.
+   */
+  synthesisMs: Distribution;
+  /**
+   * Time the media player took to prepare a synthesized file, in milliseconds.
+   */
+  prepareMs: Distribution;
+  /**
+   * Pause between consecutive queued utterances, in milliseconds.
+   */
+  gapMs: Distribution;
+  /**
+   * Number of segments waiting for synthesis or playback when `speak` was called.
+   */
+  queueDepth: Distribution;
+  /**
+   * Share of cache lookups that were hits, between 0 and 1.
+   */
+  cacheHitRate: number;
+}
+
+export interface Distribution {
+  /**
+   * Number of samples.
+   */
+  count: number;
+  mean: number;
+  p50: number;
+  p95: number;
+  p99: number;
+  max: number;
 }
 
 /**
@@ -1,6 +1,17 @@
 import { WebPlugin } from '@capacitor/core';
 
-import type { TextToSpeechPlugin, TTSOptions, ConnectedDevice } from './definitions';
+import type {
+  TextToSpeechPlugin,
+  TTSOptions,
+  PreloadedTTSOptions,
+  ConnectedDevice,
+  CacheStats,
+  PlaybackStats,
+  EngineStats,
+  PipelineMetrics,
+  RenderResult,
+  PrerenderJob,
+} from './definitions';
 
 export class TextToSpeechWeb extends WebPlugin implements TextToSpeechPlugin {
   private speechSynthesis: SpeechSynthesis | null = null;
@@ -16,10 +27,13 @@ export class TextToSpeechWeb extends WebPlugin implements TextToSpeechPlugin {
     }
   }
 
-  public async speak(options: TTSOptions): Promise<void> {
+  public async speak(options: TTSOptions | PreloadedTTSOptions): Promise<void> {
     if (!this.speechSynthesis) {
       this.throwUnsupportedError();
     }
+    if ('handle' in options) {
+      this.throwUnimplementedError();
+    }
     await this.stop();
     const speechSynthesis = this.speechSynthesis;
     const utterance = this.createSpeechSynthesisUtterance(options);
@@ -48,10 +62,13 @@ export class TextToSpeechWeb extends WebPlugin implements TextToSpeechPlugin {
     return { languages: filteredLanguages };
   }
 
-  public async getSupportedVoices(): Promise<{
+  public async getSupportedVoices(options?: { lang?: string }): Promise<{
     voices: SpeechSynthesisVoice[];
   }> {
     const voices = this.getSpeechSynthesisVoices();
+    if (options?.lang) {
+      return { voices: voices.filter((voice) => voice.lang === options.lang) };
+    }
     return { voices };
   }
 
@@ -112,6 +129,82 @@ export class TextToSpeechWeb extends WebPlugin implements TextToSpeechPlugin {
     this.throwUnimplementedError();
   }
 
+  public async preload(): Promise<{ handles: string[] }> {
+    this.throwUnimplementedError();
+  }
+
+  public async render(): Promise<RenderResult> {
+    this.throwUnimplementedError();
+  }
+
+  public async prerender(): Promise<{ jobId: string; total: number }> {
+    this.throwUnimplementedError();
+  }
+
+  public async cancelPrerender(): Promise<void> {
+    this.throwUnimplementedError();
+  }
+
+  public async getPrerenderJobs(): Promise<{ jobs: PrerenderJob[] }> {
+    this.throwUnimplementedError();
+  }
+
+  public async buildPromptPack(): Promise<{ uri: string; entries: number; bytes: number }> {
+    this.throwUnimplementedError();
+  }
+
+  public async loadPromptPack(): Promise<{ entries: number }> {
+    this.throwUnimplementedError();
+  }
+
+  public async unloadPromptPacks(): Promise<void> {
+    this.throwUnimplementedError();
+  }
+
+  public async configureCache(): Promise<void> {
+    this.throwUnimplementedError();
+  }
+
+  public async configureQueue(): Promise<void> {
+    this.throwUnimplementedError();
+  }
+
+  public async configureAudioSession(): Promise<void> {
+    this.throwUnimplementedError();
+  }
+
+  public async configureAudioProcessing(): Promise<void> {
+    this.throwUnimplementedError();
+  }
+
+  public async configureEngines(): Promise<void> {
+    this.throwUnimplementedError();
+  }
+
+  public async configureMetrics(): Promise<void> {
+    this.throwUnimplementedError();
+  }
+
+  public async getCacheStats(): Promise<CacheStats> {
+    this.throwUnimplementedError();
+  }
+
+  public async getPlaybackStats(): Promise<PlaybackStats> {
+    this.throwUnimplementedError();
+  }
+
+  public async getEngineStats(): Promise<{ engines: EngineStats[] }> {
+    this.throwUnimplementedError();
+  }
+
+  public async getMetrics(): Promise<PipelineMetrics> {
+    this.throwUnimplementedError();
+  }
+
+  public async speakBatch(): Promise<{ batchId: string }> {
+    this.throwUnimplementedError();
+  }
+
   public async getConnectedAudioDevices(): Promise<{ devices: ConnectedDevice[] }> {
     // Web 端无法获取具体的音频设备信息
     throw this.unimplemented('Not implemented on web.');